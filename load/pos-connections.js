@@ -0,0 +1,78 @@
+// Compares the platform-thread and virtual-thread execution modes under 1k, 5k and 10k concurrent
+// POS terminals. Each virtual user is one terminal: it initiates a signed payment and then polls
+// its status, the way a terminal waits for the customer to pay.
+//
+// Run each mode against a database seeded with one ACTIVE merchant, once per connection count:
+//
+//   platform threads:  ./mvnw spring-boot:run -Dspring-boot.run.arguments="--server.tomcat.max-connections=20000"
+//   virtual threads:   ./mvnw -Pjava21 spring-boot:run \
+//                        -Dspring-boot.run.arguments="--spring.threads.virtual.enabled=true --server.tomcat.max-connections=20000"
+//
+//   k6 run -e CONNECTIONS=1000  -e MERCHANT_ID=... -e MERCHANT_SECRET=... load/pos-connections.js
+//   k6 run -e CONNECTIONS=5000  ...
+//   k6 run -e CONNECTIONS=10000 ...
+//
+// MERCHANT_SECRET is the merchant's Base64 secret key. Compare http_req_duration p95/p99,
+// http_req_failed and iterations per second between the modes, together with
+// hikaricp_connections_pending and jvm_threads_live_threads from /actuator/prometheus.
+// The client needs `ulimit -n` above the connection count.
+
+import http from 'k6/http';
+import crypto from 'k6/crypto';
+import encoding from 'k6/encoding';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8091';
+const CONNECTIONS = parseInt(__ENV.CONNECTIONS || '1000', 10);
+const DURATION = __ENV.DURATION || '5m';
+const MERCHANT_ID = __ENV.MERCHANT_ID;
+const MERCHANT_KEY = encoding.b64decode(__ENV.MERCHANT_SECRET || '', 'std');
+const STATUS_POLLS = parseInt(__ENV.STATUS_POLLS || '3', 10);
+
+export const options = {
+    scenarios: {
+        pos_terminals: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: CONNECTIONS },
+                { duration: DURATION, target: CONNECTIONS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '30s',
+        },
+    },
+    noConnectionReuse: false,
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    tags: { connections: String(CONNECTIONS) },
+};
+
+export default function () {
+    const body = JSON.stringify({
+        terminalId: `TERM-${__VU}`,
+        amount: (Math.floor(Math.random() * 20000) / 100 + 1).toFixed(2),
+        transactionRef: `LOAD-${__VU}-${__ITER}-${Date.now()}`,
+    });
+    const signature = crypto.hmac('sha256', MERCHANT_KEY, MERCHANT_ID + body, 'base64');
+
+    const initiated = http.post(`${BASE_URL}/api/v1/payments/initiate`, body, {
+        headers: {
+            'Content-Type': 'application/json',
+            'X-Merchant-ID': MERCHANT_ID,
+            'X-Signature': signature,
+        },
+        tags: { endpoint: 'initiate' },
+    });
+    const ok = check(initiated, { 'initiated': (r) => r.status === 200 && r.json('success') === true });
+    if (!ok) {
+        sleep(1);
+        return;
+    }
+
+    const sessionId = initiated.json('sessionId');
+    for (let i = 0; i < STATUS_POLLS; i++) {
+        sleep(1);
+        const status = http.get(`${BASE_URL}/api/v1/payments/status/${sessionId}`, { tags: { endpoint: 'status' } });
+        check(status, { 'status found': (r) => r.status === 200 });
+    }
+}
@@ -0,0 +1,16 @@
+package com.roshansutihar.paymentscore.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    // Bounds the per-merchant fraud score series; merchants past the limit are not recorded
+    @Bean
+    public MeterFilter fraudScoreMerchantTagLimit(@Value("${app.fraud.metrics.max-merchant-tags:500}") int maxMerchantTags) {
+        return MeterFilter.maximumAllowableTags("fraud.score", "merchant", maxMerchantTags, MeterFilter.deny());
+    }
+}
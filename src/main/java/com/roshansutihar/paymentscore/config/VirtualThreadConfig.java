@@ -0,0 +1,46 @@
+package com.roshansutihar.paymentscore.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Active only when spring.threads.virtual.enabled=true on a Java 21+ runtime (build with -Pjava21).
+ * The Hikari pool stays a bean of its own, so pool metrics and anything injecting
+ * {@link HikariDataSource} see it unchanged; JPA, JDBC and Flyway get the primary
+ * {@link DataSource}, which gates checkout with a semaphore in front of the pool.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadConfig {
+
+    // Same binding as Spring Boot's own Hikari datasource, which backs off once a DataSource bean exists
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource hikariDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (properties.getName() != null) {
+            dataSource.setPoolName(properties.getName());
+        }
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource hikariDataSource,
+                                 @Value("${app.datasource.max-concurrent-connections:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConnections,
+                                 @Value("${spring.datasource.hikari.connection-timeout:30000}") long acquireTimeoutMillis) {
+        log.info("Running on virtual threads; limiting datasource to {} concurrent connections", maxConnections);
+        return new ConnectionLimitingDataSource(hikariDataSource, maxConnections, acquireTimeoutMillis);
+    }
+}
@@ -0,0 +1,17 @@
+package com.roshansutihar.paymentscore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class MerchantStatusTotalsDTO {
+    // Rail transfer status, UNKNOWN when the payment has no transfer
+    private String status;
+    private Long count;
+    private BigDecimal grossAmount;
+    private BigDecimal commissionAmount;
+    private BigDecimal netAmount;
+}
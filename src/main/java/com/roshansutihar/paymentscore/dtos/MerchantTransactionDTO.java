@@ -1,5 +1,7 @@
 package com.roshansutihar.paymentscore.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
@@ -9,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class MerchantTransactionDTO {
     private String sessionId;
     private String transactionRef;
@@ -23,5 +26,8 @@ public class MerchantTransactionDTO {
     @Getter
     private BigDecimal netAmount;
     private LocalDateTime settlementDate;
+    // Keyset position together with createdAt
+    @JsonIgnore
+    private Long ledgerEntryId;
 
 }
@@ -0,0 +1,13 @@
+package com.roshansutihar.paymentscore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class MerchantTransactionTotalsDTO {
+    private Long count;
+    private BigDecimal amount;
+}
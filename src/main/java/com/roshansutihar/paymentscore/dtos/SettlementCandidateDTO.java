@@ -0,0 +1,24 @@
+package com.roshansutihar.paymentscore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// An acknowledged rail transfer not yet claimed by a settlement, with its ledger credit and commission
+@Data
+@AllArgsConstructor
+public class SettlementCandidateDTO {
+    private Long railTransferId;
+    private Long paymentIntentId;
+    private String sessionId;
+    private String transactionRef;
+    private BigDecimal amount;
+    private BigDecimal commissionAmount;
+    private BigDecimal netAmount;
+    private String currency;
+    private String transferStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime transferSettlementDate;
+}
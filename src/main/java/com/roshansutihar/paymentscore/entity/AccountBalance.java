@@ -0,0 +1,28 @@
+package com.roshansutihar.paymentscore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "account_balances")
+@IdClass(AccountBalanceId.class)
+@Data
+public class AccountBalance {
+
+    @Id
+    @Column(name = "account_number", length = 50)
+    private String accountNumber;
+
+    @Id
+    @Column(nullable = false)
+    private Integer shard = 0;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
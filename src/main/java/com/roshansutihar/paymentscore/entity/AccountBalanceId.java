@@ -0,0 +1,15 @@
+package com.roshansutihar.paymentscore.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceId implements Serializable {
+    private String accountNumber;
+    private Integer shard;
+}
@@ -18,7 +18,8 @@ import java.util.List;
 public class FraudCheck {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fraud_checks_id_seq")
+    @SequenceGenerator(name = "fraud_checks_id_seq", sequenceName = "fraud_checks_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,6 +37,10 @@ public class FraudCheck {
     @Column(name = "rules_triggered", columnDefinition = "jsonb")
     private List<String> rulesTriggered = new ArrayList<>();
 
+    // Recorded by asynchronous shadow scoring; never used for the payment decision
+    @Column(nullable = false)
+    private boolean shadow;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,38 @@
+package com.roshansutihar.paymentscore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ledger_checkpoints")
+@Data
+public class LedgerCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_number", nullable = false, length = 50)
+    private String accountNumber;
+
+    @Column(name = "as_of_entry_id", nullable = false)
+    private Long asOfEntryId;
+
+    // Balance covers every entry of the account with created_at <= as_of_time
+    @Column(name = "as_of_time", nullable = false)
+    private LocalDateTime asOfTime;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
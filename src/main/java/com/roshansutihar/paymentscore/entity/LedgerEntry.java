@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 public class LedgerEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_id_seq")
+    @SequenceGenerator(name = "ledger_entries_id_seq", sequenceName = "ledger_entries_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "payment_intent_id", nullable = false)
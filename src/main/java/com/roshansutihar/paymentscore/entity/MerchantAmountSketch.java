@@ -0,0 +1,35 @@
+package com.roshansutihar.paymentscore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Entity
+@Table(name = "merchant_amount_sketches")
+@Data
+public class MerchantAmountSketch {
+
+    @Id
+    @Column(name = "merchant_id", length = 100)
+    private String merchantId;
+
+    // Bucket indexes are only meaningful for the accuracy they were built with
+    @Column(name = "relative_accuracy", nullable = false)
+    private Double relativeAccuracy;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+
+    // Non-empty buckets only, keyed by bucket index
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "bucket_counts", columnDefinition = "jsonb", nullable = false)
+    private Map<String, Long> bucketCounts = new HashMap<>();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
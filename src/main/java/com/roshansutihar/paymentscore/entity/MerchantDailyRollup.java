@@ -0,0 +1,42 @@
+package com.roshansutihar.paymentscore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "merchant_daily_rollups")
+@IdClass(MerchantDailyRollupId.class)
+@Data
+public class MerchantDailyRollup {
+
+    @Id
+    @Column(name = "merchant_id", length = 100)
+    private String merchantId;
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Id
+    @Column(name = "transfer_status", length = 20)
+    private String transferStatus;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "gross_amount", nullable = false, precision = 18, scale = 2)
+    private BigDecimal grossAmount;
+
+    @Column(name = "commission_amount", nullable = false, precision = 18, scale = 2)
+    private BigDecimal commissionAmount;
+
+    @Column(name = "net_amount", nullable = false, precision = 18, scale = 2)
+    private BigDecimal netAmount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
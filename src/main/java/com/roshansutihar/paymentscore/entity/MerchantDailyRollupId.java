@@ -0,0 +1,17 @@
+package com.roshansutihar.paymentscore.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantDailyRollupId implements Serializable {
+    private String merchantId;
+    private LocalDate rollupDate;
+    private String transferStatus;
+}
@@ -43,6 +43,18 @@ public class MerchantSettlement {
     @Column(name = "settlement_date", nullable = false)
     private LocalDate settlementDate;
 
+    @Column(name = "transaction_count", nullable = false)
+    private Integer transactionCount;
+
+    @Column(name = "period_from")
+    private LocalDateTime periodFrom;
+
+    @Column(name = "period_to")
+    private LocalDateTime periodTo;
+
+    @Column(name = "settled_at")
+    private LocalDateTime settledAt;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
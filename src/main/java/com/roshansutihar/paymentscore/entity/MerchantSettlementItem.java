@@ -0,0 +1,60 @@
+package com.roshansutihar.paymentscore.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "merchant_settlement_items")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantSettlementItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "merchant_settlement_items_id_seq")
+    @SequenceGenerator(name = "merchant_settlement_items_id_seq", sequenceName = "merchant_settlement_items_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "settlement_id", nullable = false)
+    private Long settlementId;
+
+    @Column(name = "rail_transfer_id", nullable = false, unique = true)
+    private Long railTransferId;
+
+    @Column(name = "payment_intent_id", nullable = false)
+    private Long paymentIntentId;
+
+    @Column(name = "transaction_ref", length = 100)
+    private String transactionRef;
+
+    @Column(name = "session_id", length = 100)
+    private String sessionId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "commission_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal commissionAmount;
+
+    @Column(name = "net_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal netAmount;
+
+    @Column(length = 10)
+    private String currency;
+
+    @Column(name = "transfer_status", nullable = false, length = 20)
+    private String transferStatus;
+
+    @Column(name = "transaction_created_at", nullable = false)
+    private LocalDateTime transactionCreatedAt;
+
+    @Column(name = "transfer_settlement_date")
+    private LocalDateTime transferSettlementDate;
+}
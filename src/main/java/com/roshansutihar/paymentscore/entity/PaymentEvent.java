@@ -15,13 +15,18 @@ import java.time.LocalDateTime;
 public class PaymentEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_events_id_seq")
+    @SequenceGenerator(name = "payment_events_id_seq", sequenceName = "payment_events_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_intent_id", nullable = false)
     private PaymentIntent paymentIntent;
 
+    // Read-only view of the foreign key, so events can be written without loading the intent
+    @Column(name = "payment_intent_id", insertable = false, updatable = false)
+    private Long paymentIntentId;
+
     @Column(name = "event_type", nullable = false, length = 50)
     private String eventType;
 
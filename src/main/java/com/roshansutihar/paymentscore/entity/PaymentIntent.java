@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class PaymentIntent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_intents_id_seq")
+    @SequenceGenerator(name = "payment_intents_id_seq", sequenceName = "payment_intents_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "merchant_id", nullable = false)
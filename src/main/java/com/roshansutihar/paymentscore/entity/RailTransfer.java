@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class RailTransfer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rail_transfers_id_seq")
+    @SequenceGenerator(name = "rail_transfers_id_seq", sequenceName = "rail_transfers_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
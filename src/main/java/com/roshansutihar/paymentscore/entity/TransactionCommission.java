@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class TransactionCommission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_commissions_id_seq")
+    @SequenceGenerator(name = "transaction_commissions_id_seq", sequenceName = "transaction_commissions_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "payment_intent_id", nullable = false)
@@ -1,5 +1,11 @@
 package com.roshansutihar.paymentscore.enums;
 
 public enum RiskLevel {
-    LOW, MEDIUM, HIGH
+    LOW, MEDIUM, HIGH;
+
+    public static RiskLevel forScore(int riskScore) {
+        if (riskScore >= 60) return HIGH;
+        if (riskScore >= 30) return MEDIUM;
+        return LOW;
+    }
 }
\ No newline at end of file
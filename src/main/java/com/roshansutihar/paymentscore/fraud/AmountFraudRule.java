@@ -0,0 +1,46 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class AmountFraudRule implements FraudRule {
+
+    private final AmountProfileSource amountProfiles;
+
+    // Only used for merchants without enough history for their own percentiles
+    @Value("${app.fraud.amount.threshold:5000}")
+    private BigDecimal amountThreshold;
+
+    @Override
+    public String getName() {
+        return "amount";
+    }
+
+    @Override
+    public Cost getDefaultCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public FraudRuleOutcome evaluate(FraudContext context) {
+        BigDecimal amount = context.getPaymentIntent().getAmount();
+
+        Optional<MerchantAmountProfiles.AmountThresholds> thresholds = amountProfiles.thresholds(context.getMerchantId());
+        BigDecimal highThreshold = thresholds.map(MerchantAmountProfiles.AmountThresholds::getP99).orElse(amountThreshold);
+        BigDecimal mediumThreshold = thresholds.map(MerchantAmountProfiles.AmountThresholds::getP95)
+                .orElse(amountThreshold.multiply(new BigDecimal("0.7")));
+
+        if (amount.compareTo(highThreshold) > 0) {
+            return FraudRuleOutcome.hit("HIGH_AMOUNT_TRANSACTION", 30);
+        } else if (amount.compareTo(mediumThreshold) > 0) {
+            return FraudRuleOutcome.hit("MEDIUM_AMOUNT_TRANSACTION", 15);
+        }
+        return FraudRuleOutcome.pass();
+    }
+}
@@ -0,0 +1,9 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.util.Optional;
+
+// A merchant's amount percentiles, empty until it has enough history; live or replayed
+public interface AmountProfileSource {
+
+    Optional<MerchantAmountProfiles.AmountThresholds> thresholds(String merchantId);
+}
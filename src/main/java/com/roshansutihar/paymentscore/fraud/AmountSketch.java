@@ -0,0 +1,86 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Quantile sketch over positive amounts with fixed relative accuracy. Each value is counted in a
+ * logarithmic bucket, so any quantile is returned within the configured relative error using a
+ * fixed number of counters, however many values are added. Adds are atomic increments and
+ * reads never lock.
+ */
+public class AmountSketch {
+
+    private static final double MIN_VALUE = 0.01;
+    private static final double MAX_VALUE = 1_000_000_000d;
+
+    private final double gamma;
+    private final double lnGamma;
+    private final int minIndex;
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+
+    public AmountSketch(double relativeAccuracy) {
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.lnGamma = Math.log(gamma);
+        this.minIndex = bucketIndex(lnGamma, MIN_VALUE);
+        this.counts = new AtomicLongArray(bucketIndex(lnGamma, MAX_VALUE) - minIndex + 1);
+    }
+
+    // Bucket i holds values in (gamma^(i-1), gamma^i]
+    public static int bucketIndex(double lnGamma, double value) {
+        return (int) Math.ceil(Math.log(value) / lnGamma);
+    }
+
+    public void add(BigDecimal amount) {
+        double value = Math.min(Math.max(amount.doubleValue(), MIN_VALUE), MAX_VALUE);
+        addToBucket(bucketIndex(lnGamma, value), 1);
+    }
+
+    public void addToBucket(int index, long count) {
+        int slot = Math.min(Math.max(index - minIndex, 0), counts.length() - 1);
+        counts.addAndGet(slot, count);
+        total.addAndGet(count);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public BigDecimal quantile(double quantile) {
+        long count = total.get();
+        if (count == 0) {
+            return BigDecimal.ZERO;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        int slot = 0;
+        for (; slot < counts.length(); slot++) {
+            seen += counts.get(slot);
+            if (seen >= rank) {
+                break;
+            }
+        }
+        int index = Math.min(slot, counts.length() - 1) + minIndex;
+        return BigDecimal.valueOf(2 * Math.pow(gamma, index) / (gamma + 1));
+    }
+
+    public Map<String, Long> nonEmptyBuckets() {
+        Map<String, Long> buckets = new HashMap<>();
+        for (int slot = 0; slot < counts.length(); slot++) {
+            long count = counts.get(slot);
+            if (count > 0) {
+                buckets.put(Integer.toString(slot + minIndex), count);
+            }
+        }
+        return buckets;
+    }
+
+    public double getLnGamma() {
+        return lnGamma;
+    }
+}
@@ -0,0 +1,49 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over string keys, sized from the expected number of
+ * insertions and the target false-positive probability. Bits are set with atomic OR, so
+ * concurrent adds and lookups need no locking.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitCount / 64));
+    }
+
+    public void add(String key) {
+        long hash1 = SketchHashing.hash(key);
+        long hash2 = SketchHashing.secondHash(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << (bit & 63);
+            bits.accumulateAndGet((int) (bit >>> 6), mask, (current, m) -> current | m);
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash1 = SketchHashing.hash(key);
+        long hash2 = SketchHashing.secondHash(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return bitCount / 8;
+    }
+}
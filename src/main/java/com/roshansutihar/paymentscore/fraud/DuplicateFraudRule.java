@@ -0,0 +1,38 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class DuplicateFraudRule implements FraudRule {
+
+    private final DuplicatePaymentSource duplicateDetector;
+
+    @Override
+    public String getName() {
+        return "duplicate";
+    }
+
+    // Filter hits are confirmed against the database
+    @Override
+    public Cost getDefaultCost() {
+        return Cost.EXPENSIVE;
+    }
+
+    @Override
+    public FraudRuleOutcome evaluate(FraudContext context) {
+        PaymentIntent paymentIntent = context.getPaymentIntent();
+        boolean hasRecentSimilar = duplicateDetector.isRecentDuplicate(
+                paymentIntent.getMerchantId(),
+                paymentIntent.getTerminalId(),
+                paymentIntent.getAmount(),
+                context.getEvaluatedAt());
+
+        if (hasRecentSimilar) {
+            return FraudRuleOutcome.hit("POSSIBLE_DUPLICATE_TRANSACTION", 25);
+        }
+        return FraudRuleOutcome.pass();
+    }
+}
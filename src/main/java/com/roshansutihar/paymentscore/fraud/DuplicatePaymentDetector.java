@@ -0,0 +1,189 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.enums.PaymentStatus;
+import com.roshansutihar.paymentscore.repository.PaymentIntentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers recently completed payments in rotating per-interval Bloom filters covering the
+ * duplicate window. A miss is answered from memory without touching the database; only a filter
+ * hit is confirmed with an indexed EXISTS query, so false positives cost one lookup and never
+ * change the score. Detection is per node: the filters see the completions this node made plus
+ * those loaded at startup, so a duplicate completed on another node since then goes unnoticed.
+ * Deployments that need cross-node detection set app.fraud.duplicate.confirm-misses, which
+ * sends every miss to the same query as well.
+ */
+@Component
+@Slf4j
+public class DuplicatePaymentDetector implements DuplicatePaymentSource {
+
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final long windowSeconds;
+    private final long bucketSeconds;
+    private final long expectedPerBucket;
+    private final double falsePositiveProbability;
+    private final boolean includeTerminal;
+    private final boolean confirmMisses;
+    private final AtomicReferenceArray<Slot> slots;
+
+    private final Counter filterMisses;
+    private final Counter falsePositives;
+    private final Counter confirmedHits;
+    private final Counter remoteHits;
+
+    public DuplicatePaymentDetector(PaymentIntentRepository paymentIntentRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.fraud.duplicate.window-minutes:10}") long windowMinutes,
+                                    @Value("${app.fraud.duplicate.buckets:10}") int bucketCount,
+                                    @Value("${app.fraud.duplicate.expected-per-bucket:100000}") long expectedPerBucket,
+                                    @Value("${app.fraud.duplicate.false-positive-probability:0.01}") double falsePositiveProbability,
+                                    @Value("${app.fraud.duplicate.include-terminal:false}") boolean includeTerminal,
+                                    @Value("${app.fraud.duplicate.confirm-misses:false}") boolean confirmMisses) {
+        this.paymentIntentRepository = paymentIntentRepository;
+        this.windowSeconds = windowMinutes * 60;
+        this.bucketSeconds = Math.max(1, (windowSeconds + bucketCount - 1) / bucketCount);
+        this.expectedPerBucket = expectedPerBucket;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.includeTerminal = includeTerminal;
+        this.confirmMisses = confirmMisses;
+        // One spare slot so the oldest bucket still inside the window is never overwritten early
+        this.slots = new AtomicReferenceArray<>(bucketCount + 1);
+
+        this.filterMisses = lookupCounter(meterRegistry, "miss");
+        this.falsePositives = lookupCounter(meterRegistry, "false_positive");
+        this.confirmedHits = lookupCounter(meterRegistry, "confirmed");
+        // Misses the database confirmed: completions made by another node
+        this.remoteHits = lookupCounter(meterRegistry, "remote");
+
+        Gauge.builder("fraud.duplicate.filter.false_positive_rate", this, DuplicatePaymentDetector::observedFalsePositiveRate)
+                .description("Share of filter hits not confirmed by the database")
+                .register(meterRegistry);
+        Gauge.builder("fraud.duplicate.filter.memory", this, DuplicatePaymentDetector::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void recordCompleted(PaymentIntent paymentIntent) {
+        LocalDateTime createdAt = paymentIntent.getCreatedAt() != null ? paymentIntent.getCreatedAt() : LocalDateTime.now();
+        add(key(paymentIntent.getMerchantId(), paymentIntent.getTerminalId(), paymentIntent.getAmount()), createdAt);
+    }
+
+    // True when a payment with the same key completed within the window; only filter hits reach the database
+    @Override
+    public boolean isRecentDuplicate(String merchantId, String terminalId, BigDecimal amount, LocalDateTime now) {
+        if (!mightContain(key(merchantId, terminalId, amount), now)) {
+            filterMisses.increment();
+            if (!confirmMisses) {
+                return false;
+            }
+            boolean exists = existsInDatabase(merchantId, terminalId, amount, now);
+            if (exists) {
+                remoteHits.increment();
+            }
+            return exists;
+        }
+
+        boolean exists = existsInDatabase(merchantId, terminalId, amount, now);
+        (exists ? confirmedHits : falsePositives).increment();
+        return exists;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minusSeconds(windowSeconds);
+        List<Object[]> rows = paymentIntentRepository.findCompletedPaymentKeysSince(since);
+        for (Object[] row : rows) {
+            add(key((String) row[0], (String) row[1], (BigDecimal) row[2]), (LocalDateTime) row[3]);
+        }
+        log.info("Rebuilt duplicate filter from {} completed payments since {}", rows.size(), since);
+    }
+
+    private boolean existsInDatabase(String merchantId, String terminalId, BigDecimal amount, LocalDateTime now) {
+        LocalDateTime since = now.minusSeconds(windowSeconds);
+        return includeTerminal
+                ? paymentIntentRepository.existsByMerchantIdAndTerminalIdAndAmountAndStatusAndCreatedAtGreaterThanEqual(
+                        merchantId, terminalId, amount, PaymentStatus.COMPLETED, since)
+                : paymentIntentRepository.existsByMerchantIdAndAmountAndStatusAndCreatedAtGreaterThanEqual(
+                        merchantId, amount, PaymentStatus.COMPLETED, since);
+    }
+
+    private void add(String key, LocalDateTime createdAt) {
+        long bucket = toEpochSecond(createdAt) / bucketSeconds;
+        int index = (int) Math.floorMod(bucket, (long) slots.length());
+
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.bucket() == bucket) {
+                slot.filter().add(key);
+                return;
+            }
+            if (slot != null && slot.bucket() > bucket) {
+                return;
+            }
+            Slot fresh = new Slot(bucket, new BloomFilter(expectedPerBucket, falsePositiveProbability));
+            slots.compareAndSet(index, slot, fresh);
+        }
+    }
+
+    private boolean mightContain(String key, LocalDateTime now) {
+        long currentBucket = toEpochSecond(now) / bucketSeconds;
+        long oldestBucket = (toEpochSecond(now) - windowSeconds) / bucketSeconds;
+
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.bucket() >= oldestBucket && slot.bucket() <= currentBucket
+                    && slot.filter().mightContain(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String key(String merchantId, String terminalId, BigDecimal amount) {
+        String key = merchantId + '|' + amount.stripTrailingZeros().toPlainString();
+        return includeTerminal ? key + '|' + terminalId : key;
+    }
+
+    private double observedFalsePositiveRate() {
+        double hits = falsePositives.count() + confirmedHits.count();
+        return hits == 0 ? 0.0 : falsePositives.count() / hits;
+    }
+
+    private double memoryBytes() {
+        long total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null) {
+                total += slot.filter().sizeInBytes();
+            }
+        }
+        return total;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fraud.duplicate.filter.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private record Slot(long bucket, BloomFilter filter) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Whether a payment with the same key completed within the duplicate window; live or replayed
+public interface DuplicatePaymentSource {
+
+    boolean isRecentDuplicate(String merchantId, String terminalId, BigDecimal amount, LocalDateTime now);
+}
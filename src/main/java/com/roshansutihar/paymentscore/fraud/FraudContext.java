@@ -0,0 +1,36 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class FraudContext {
+
+    private final FraudRule.Stage stage;
+    private final PaymentIntent paymentIntent;
+    private final LocalDateTime evaluatedAt;
+
+    // Intents of the same merchant scored alongside this one but not yet recorded in the velocity counter,
+    // including this one when it has not been recorded itself
+    private final int unrecordedIntents;
+
+    // Account being debited; only known at completion
+    private final String payerAccount;
+
+    public static FraudContext forInitiation(PaymentIntent paymentIntent, LocalDateTime evaluatedAt, int unrecordedIntents) {
+        return new FraudContext(FraudRule.Stage.INITIATION, paymentIntent, evaluatedAt, unrecordedIntents, null);
+    }
+
+    public static FraudContext forCompletion(PaymentIntent paymentIntent, LocalDateTime evaluatedAt, String payerAccount) {
+        return new FraudContext(FraudRule.Stage.COMPLETION, paymentIntent, evaluatedAt, 0, payerAccount);
+    }
+
+    public String getMerchantId() {
+        return paymentIntent.getMerchantId();
+    }
+}
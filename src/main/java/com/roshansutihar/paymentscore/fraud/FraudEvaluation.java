@@ -0,0 +1,18 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class FraudEvaluation {
+    private int riskScore;
+    private List<String> triggeredRules;
+    // Weighted score of each rule that fired, by rule name
+    private Map<String, Integer> ruleScores;
+    // True when evaluation stopped early because the block score was already reached
+    private boolean shortCircuited;
+}
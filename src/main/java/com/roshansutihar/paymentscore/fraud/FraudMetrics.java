@@ -0,0 +1,72 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.FraudCheck;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Meters for the fraud pipeline: per-rule latency and hit rate, decisions by risk level,
+ * per-merchant score distribution, and the duration of each initiation stage.
+ */
+@Component
+@RequiredArgsConstructor
+public class FraudMetrics {
+
+    private static final double[] SCORE_BOUNDARIES = {30, 60, 70, 90, 100};
+
+    private final MeterRegistry meterRegistry;
+
+    public FraudRuleOutcome timeRule(String rule, Supplier<FraudRuleOutcome> evaluation) {
+        FraudRuleOutcome outcome = Timer.builder("fraud.rule.duration")
+                .tag("rule", rule)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(evaluation);
+
+        Counter.builder("fraud.rule.results")
+                .tag("rule", rule)
+                .tag("result", outcome != null && outcome.isTriggered() ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+        return outcome;
+    }
+
+    public void recordCheck(FraudRule.Stage stage, FraudCheck fraudCheck, boolean blocked) {
+        Counter.builder("fraud.checks")
+                .tag("stage", stage.name())
+                .tag("risk_level", fraudCheck.getRiskLevel().name())
+                .tag("decision", blocked ? "blocked" : "allowed")
+                .register(meterRegistry)
+                .increment();
+
+        // Merchants are unbounded, so a few buckets at the risk level and block boundaries
+        // instead of a full percentile histogram per merchant
+        DistributionSummary.builder("fraud.score")
+                .tag("stage", stage.name())
+                .tag("merchant", fraudCheck.getPaymentIntent().getMerchantId())
+                .serviceLevelObjectives(SCORE_BOUNDARIES)
+                .register(meterRegistry)
+                .record(fraudCheck.getRiskScore());
+    }
+
+    public void recordCallerRun() {
+        Counter.builder("fraud.rule.caller_runs")
+                .description("Expensive rules run on the request thread because the rule pool queue was full")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public <T> T timeInitiationStage(String stage, Supplier<T> work) {
+        return Timer.builder("payment.initiation.stage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(work);
+    }
+}
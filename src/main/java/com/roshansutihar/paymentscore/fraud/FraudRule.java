@@ -0,0 +1,36 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A single fraud scoring rule. Implementations are Spring beans picked up by {@link FraudRuleEngine};
+ * whether a rule runs, its weight, its cost class and whether it only runs in shadow mode can be
+ * overridden under app.fraud.rules.&lt;name&gt;.enabled / .weight / .cost / .shadow.
+ */
+public interface FraudRule {
+
+    enum Cost {
+        // In-memory only, evaluated inline before anything else
+        CHEAP,
+        // May block on I/O, evaluated concurrently with the other expensive rules
+        EXPENSIVE
+    }
+
+    enum Stage {
+        // Scoring a new payment intent
+        INITIATION,
+        // Scoring the payer's debit when the bank reports the payment complete
+        COMPLETION
+    }
+
+    String getName();
+
+    default Set<Stage> getStages() {
+        return EnumSet.of(Stage.INITIATION);
+    }
+
+    Cost getDefaultCost();
+
+    FraudRuleOutcome evaluate(FraudContext context);
+}
@@ -0,0 +1,229 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates the enabled {@link FraudRule}s for a payment. Cheap rules run inline first, then
+ * expensive rules run concurrently and are folded in as they finish, highest weight first; when
+ * called inside a transaction they run one by one on the caller's thread and connection instead.
+ * Evaluation stops as soon as the running score reaches app.fraud.block.score, since no further
+ * rule can change the decision. Rules marked shadow are left out and only run through
+ * {@link #evaluateShadow}. The rule pool has a bounded queue; when it is full the request thread
+ * runs the rule itself, so overload slows scoring down rather than skipping rules or queueing
+ * without limit.
+ */
+@Component
+@Slf4j
+public class FraudRuleEngine {
+
+    private final Map<FraudRule.Stage, StageRules> rulesByStage = new EnumMap<>(FraudRule.Stage.class);
+    private final ExecutorService executor;
+    private final FraudMetrics fraudMetrics;
+    private final int blockRiskScore;
+
+    public FraudRuleEngine(List<FraudRule> rules,
+                           FraudMetrics fraudMetrics,
+                           Environment environment,
+                           @Value("${app.fraud.block.score:70}") int blockRiskScore,
+                           @Value("${app.fraud.rules.parallelism:8}") int parallelism,
+                           @Value("${app.fraud.rules.queue-capacity:256}") int queueCapacity) {
+        this.fraudMetrics = fraudMetrics;
+        this.blockRiskScore = blockRiskScore;
+
+        List<ConfiguredRule> enabled = rules.stream()
+                .filter(rule -> environment.getProperty(propertyPrefix(rule) + "enabled", Boolean.class, true))
+                .map(rule -> new ConfiguredRule(rule,
+                        environment.getProperty(propertyPrefix(rule) + "weight", Double.class, 1.0),
+                        environment.getProperty(propertyPrefix(rule) + "cost", FraudRule.Cost.class, rule.getDefaultCost()),
+                        environment.getProperty(propertyPrefix(rule) + "shadow", Boolean.class, false)))
+                .sorted(Comparator.comparingDouble(ConfiguredRule::weight).reversed())
+                .toList();
+
+        for (FraudRule.Stage stage : FraudRule.Stage.values()) {
+            List<ConfiguredRule> staged = enabled.stream()
+                    .filter(rule -> rule.rule().getStages().contains(stage))
+                    .toList();
+            StageRules stageRules = new StageRules(
+                    staged.stream().filter(rule -> !rule.shadow() && rule.cost() == FraudRule.Cost.CHEAP).toList(),
+                    staged.stream().filter(rule -> !rule.shadow() && rule.cost() == FraudRule.Cost.EXPENSIVE).toList(),
+                    staged.stream().filter(ConfiguredRule::shadow).toList());
+            rulesByStage.put(stage, stageRules);
+
+            log.info("Fraud rules loaded for {}, cheap: {}, expensive: {}, shadow: {}", stage,
+                    names(stageRules.cheap()), names(stageRules.expensive()), names(stageRules.shadow()));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "fraud-rule-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Fraud rule pool is shut down");
+                    }
+                    fraudMetrics.recordCallerRun();
+                    runnable.run();
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    public FraudEvaluation evaluate(FraudContext context) {
+        StageRules stageRules = rulesByStage.get(context.getStage());
+        Hits hits = new Hits();
+        int riskScore = 0;
+
+        for (ConfiguredRule rule : stageRules.cheap()) {
+            riskScore += apply(rule, evaluate(rule, context), hits);
+            if (riskScore >= blockRiskScore) {
+                return result(riskScore, hits, true);
+            }
+        }
+
+        // Inside a transaction the caller already holds a connection; pool threads would each need
+        // another one while it waits, so the expensive rules run here on the caller's connection
+        List<ConfiguredRule> expensiveRules = stageRules.expensive();
+        if (expensiveRules.size() <= 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return evaluateSequentially(expensiveRules, context, riskScore, hits);
+        }
+
+        return evaluateConcurrently(expensiveRules, context, riskScore, hits);
+    }
+
+    public boolean hasShadowRules(FraudRule.Stage stage) {
+        return !rulesByStage.get(stage).shadow().isEmpty();
+    }
+
+    // Runs every shadow rule without short-circuiting; called off the request path
+    public FraudEvaluation evaluateShadow(FraudContext context) {
+        Hits hits = new Hits();
+        int riskScore = 0;
+        for (ConfiguredRule rule : rulesByStage.get(context.getStage()).shadow()) {
+            riskScore += apply(rule, evaluate(rule, context), hits);
+        }
+        return result(riskScore, hits, false);
+    }
+
+    private FraudEvaluation evaluateSequentially(List<ConfiguredRule> expensiveRules, FraudContext context,
+                                                 int riskScore, Hits hits) {
+        for (int i = 0; i < expensiveRules.size(); i++) {
+            ConfiguredRule rule = expensiveRules.get(i);
+            riskScore += apply(rule, evaluate(rule, context), hits);
+            if (riskScore >= blockRiskScore) {
+                return result(riskScore, hits, i < expensiveRules.size() - 1);
+            }
+        }
+        return result(riskScore, hits, false);
+    }
+
+    private FraudEvaluation evaluateConcurrently(List<ConfiguredRule> expensiveRules, FraudContext context,
+                                                 int riskScore, Hits hits) {
+        CompletionService<FraudRuleOutcome> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<FraudRuleOutcome>> futures = new ArrayList<>(expensiveRules.size());
+        List<ConfiguredRule> submitted = new ArrayList<>(expensiveRules.size());
+
+        try {
+            for (ConfiguredRule rule : expensiveRules) {
+                futures.add(completionService.submit(() -> evaluate(rule, context)));
+                submitted.add(rule);
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                Future<FraudRuleOutcome> completed = completionService.take();
+                ConfiguredRule rule = submitted.get(futures.indexOf(completed));
+                riskScore += apply(rule, outcomeOf(rule, completed), hits);
+                if (riskScore >= blockRiskScore) {
+                    return result(riskScore, hits, i < futures.size() - 1);
+                }
+            }
+            return result(riskScore, hits, false);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during fraud check");
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private FraudRuleOutcome evaluate(ConfiguredRule rule, FraudContext context) {
+        return fraudMetrics.timeRule(rule.rule().getName(), () -> rule.rule().evaluate(context));
+    }
+
+    private static FraudRuleOutcome outcomeOf(ConfiguredRule rule, Future<FraudRuleOutcome> future)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Fraud rule failed: " + rule.rule().getName(), e.getCause());
+        }
+    }
+
+    private static int apply(ConfiguredRule rule, FraudRuleOutcome outcome, Hits hits) {
+        if (!outcome.isTriggered()) {
+            return 0;
+        }
+        int score = (int) Math.round(outcome.getScore() * rule.weight());
+        hits.triggeredRules().add(outcome.getTriggeredRule());
+        hits.ruleScores().put(rule.rule().getName(), score);
+        return score;
+    }
+
+    private static FraudEvaluation result(int riskScore, Hits hits, boolean shortCircuited) {
+        return FraudEvaluation.builder()
+                .riskScore(riskScore)
+                .triggeredRules(hits.triggeredRules())
+                .ruleScores(hits.ruleScores())
+                .shortCircuited(shortCircuited)
+                .build();
+    }
+
+    private static String propertyPrefix(FraudRule rule) {
+        return "app.fraud.rules." + rule.getName() + ".";
+    }
+
+    private static List<String> names(List<ConfiguredRule> rules) {
+        return rules.stream().map(rule -> rule.rule().getName()).toList();
+    }
+
+    private record Hits(List<String> triggeredRules, Map<String, Integer> ruleScores) {
+        Hits() {
+            this(new ArrayList<>(), new LinkedHashMap<>());
+        }
+    }
+
+    private record StageRules(List<ConfiguredRule> cheap, List<ConfiguredRule> expensive, List<ConfiguredRule> shadow) {
+    }
+
+    private record ConfiguredRule(FraudRule rule, double weight, FraudRule.Cost cost, boolean shadow) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FraudRuleOutcome {
+
+    private static final FraudRuleOutcome PASS = new FraudRuleOutcome(null, 0);
+
+    // Rule code recorded in fraud_checks.rules_triggered, null when the rule did not fire
+    private final String triggeredRule;
+    private final int score;
+
+    public static FraudRuleOutcome pass() {
+        return PASS;
+    }
+
+    public static FraudRuleOutcome hit(String triggeredRule, int score) {
+        return new FraudRuleOutcome(triggeredRule, score);
+    }
+
+    public boolean isTriggered() {
+        return triggeredRule != null;
+    }
+}
@@ -0,0 +1,184 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.MerchantAmountSketch;
+import com.roshansutihar.paymentscore.repository.MerchantAmountSketchRepository;
+import com.roshansutihar.paymentscore.repository.PaymentIntentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-merchant distribution of completed payment amounts, used to derive merchant-specific amount thresholds
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MerchantAmountProfiles implements AmountProfileSource {
+
+    private final MerchantAmountSketchRepository sketchRepository;
+    private final PaymentIntentRepository paymentIntentRepository;
+
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+
+    @Value("${app.fraud.amount.sketch.relative-accuracy:0.01}")
+    private double relativeAccuracy;
+
+    @Value("${app.fraud.amount.sketch.min-samples:100}")
+    private long minSamples;
+
+    @Value("${app.fraud.amount.sketch.refresh-every:64}")
+    private long refreshEvery;
+
+    @Value("${app.fraud.amount.sketch.bootstrap-days:90}")
+    private int bootstrapDays;
+
+    public void record(String merchantId, BigDecimal amount) {
+        Profile profile = profileFor(merchantId);
+        profile.sketch.add(amount);
+        profile.dirty.set(true);
+        if (profile.sinceRefresh.incrementAndGet() >= refreshEvery || profile.thresholds == null) {
+            profile.refresh();
+        }
+    }
+
+    // Empty until the merchant has enough completed payments for its percentiles to mean anything
+    @Override
+    public Optional<AmountThresholds> thresholds(String merchantId) {
+        Profile profile = profiles.get(merchantId);
+        if (profile == null || profile.thresholds == null || profile.thresholds.getSamples() < minSamples) {
+            return Optional.empty();
+        }
+        return Optional.of(profile.thresholds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<MerchantAmountSketch> stored = sketchRepository.findAll();
+        if (stored.isEmpty()) {
+            bootstrapFromHistory();
+            stored = sketchRepository.findAll();
+        }
+
+        for (MerchantAmountSketch sketch : stored) {
+            if (Double.compare(sketch.getRelativeAccuracy(), relativeAccuracy) != 0) {
+                continue;
+            }
+            // Completions recorded before the load are not in the stored row, so they stay unsaved
+            Profile profile = profileFor(sketch.getMerchantId());
+            sketch.getBucketCounts().forEach((index, count) -> profile.sketch.addToBucket(Integer.parseInt(index), count));
+            profile.saved = Map.copyOf(sketch.getBucketCounts());
+        }
+
+        profiles.values().forEach(Profile::refresh);
+        log.info("Loaded amount profiles for {} merchants", profiles.size());
+    }
+
+    // Each node adds only the completions it recorded since its last write, and picks up the ones other
+    // nodes added in the meantime from the merged row
+    @Scheduled(fixedDelayString = "${app.fraud.amount.sketch.persist-interval-ms:60000}")
+    @PreDestroy
+    public void persist() {
+        LocalDateTime now = LocalDateTime.now();
+        int persisted = 0;
+
+        for (Map.Entry<String, Profile> entry : profiles.entrySet()) {
+            Profile profile = entry.getValue();
+            if (!profile.dirty.compareAndSet(true, false)) {
+                continue;
+            }
+            try {
+                Map<String, Long> local = profile.sketch.nonEmptyBuckets();
+                Map<String, Long> unsaved = new HashMap<>();
+                local.forEach((index, count) -> {
+                    long delta = count - profile.saved.getOrDefault(index, 0L);
+                    if (delta > 0) {
+                        unsaved.put(index, delta);
+                    }
+                });
+
+                Map<String, Long> merged = sketchRepository.addBuckets(entry.getKey(), relativeAccuracy, unsaved, now);
+                merged.forEach((index, count) -> {
+                    long fromOtherNodes = count - local.getOrDefault(index, 0L);
+                    if (fromOtherNodes > 0) {
+                        profile.sketch.addToBucket(Integer.parseInt(index), fromOtherNodes);
+                    }
+                });
+                profile.saved = merged;
+                profile.refresh();
+                persisted++;
+            } catch (RuntimeException e) {
+                profile.dirty.set(true);
+                log.warn("Failed to persist amount profile of merchant: {}", entry.getKey(), e);
+            }
+        }
+
+        if (persisted > 0) {
+            log.debug("Persisted amount profiles for {} merchants", persisted);
+        }
+    }
+
+    // Empty table only: builds the sketches from recent completed payments, aggregated per bucket in the
+    // database. Nodes starting together each try, and the first sketch stored for a merchant wins.
+    private void bootstrapFromHistory() {
+        double lnGamma = new AmountSketch(relativeAccuracy).getLnGamma();
+        List<Object[]> rows = paymentIntentRepository.countCompletedByMerchantAndAmountBucket(
+                LocalDateTime.now().minusDays(bootstrapDays), lnGamma);
+
+        Map<String, Map<String, Long>> byMerchant = new HashMap<>();
+        for (Object[] row : rows) {
+            byMerchant.computeIfAbsent((String) row[0], id -> new HashMap<>())
+                    .merge(Integer.toString(((Number) row[1]).intValue()), ((Number) row[2]).longValue(), Long::sum);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        byMerchant.forEach((merchantId, buckets) ->
+                sketchRepository.insertIfAbsent(merchantId, relativeAccuracy, buckets, now));
+        log.info("Bootstrapped amount profiles for {} merchants from the last {} days", byMerchant.size(), bootstrapDays);
+    }
+
+    private Profile profileFor(String merchantId) {
+        return profiles.computeIfAbsent(merchantId, id -> new Profile(new AmountSketch(relativeAccuracy)));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AmountThresholds {
+        private final BigDecimal p95;
+        private final BigDecimal p99;
+        private final long samples;
+    }
+
+    private static class Profile {
+        private final AmountSketch sketch;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicLong sinceRefresh = new AtomicLong();
+        // Bucket counts as last read from or written to the database, touched only by load and persist
+        private volatile Map<String, Long> saved = Map.of();
+        // Replaced as a whole, so readers see a consistent pair without locking
+        private volatile AmountThresholds thresholds;
+
+        Profile(AmountSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        void refresh() {
+            sinceRefresh.set(0);
+            thresholds = new AmountThresholds(sketch.quantile(0.95), sketch.quantile(0.99), sketch.count());
+        }
+    }
+}
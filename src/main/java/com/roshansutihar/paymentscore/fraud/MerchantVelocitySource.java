@@ -0,0 +1,9 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.time.LocalDateTime;
+
+// Intents a merchant created within the velocity window; live from this node's counters, or replayed
+public interface MerchantVelocitySource {
+
+    long count(String merchantId, LocalDateTime now);
+}
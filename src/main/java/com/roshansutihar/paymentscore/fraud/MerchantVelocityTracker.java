@@ -0,0 +1,68 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.repository.PaymentIntentRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-merchant count of intents created on this node within the velocity window
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MerchantVelocityTracker implements MerchantVelocitySource {
+
+    private final PaymentIntentRepository paymentIntentRepository;
+
+    private final Map<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+
+    @Value("${app.fraud.velocity.window-seconds:3600}")
+    private long windowSeconds;
+
+    @Value("${app.fraud.velocity.buckets:60}")
+    private int bucketCount;
+
+    public void record(String merchantId, LocalDateTime createdAt) {
+        counterFor(merchantId).increment(toEpochSecond(createdAt));
+    }
+
+    @Override
+    public long count(String merchantId, LocalDateTime now) {
+        SlidingWindowCounter counter = counters.get(merchantId);
+        return counter != null ? counter.count(toEpochSecond(now)) : 0;
+    }
+
+    // Runs during context startup, before the web server accepts requests, so no intent recorded
+    // live can also be counted by the rebuild query
+    @PostConstruct
+    public void rebuild() {
+        long bucketSeconds = new SlidingWindowCounter(windowSeconds, bucketCount).getBucketSeconds();
+        LocalDateTime since = LocalDateTime.now().minusSeconds(windowSeconds);
+
+        List<Object[]> rows = paymentIntentRepository.countCreatedByMerchantAndBucket(since, bucketSeconds);
+        for (Object[] row : rows) {
+            String merchantId = (String) row[0];
+            long bucket = ((Number) row[1]).longValue();
+            long count = ((Number) row[2]).longValue();
+            counterFor(merchantId).add(bucket * bucketSeconds, count);
+        }
+
+        log.info("Rebuilt velocity counters for {} merchants from intents since {}", counters.size(), since);
+    }
+
+    private SlidingWindowCounter counterFor(String merchantId) {
+        return counters.computeIfAbsent(merchantId, id -> new SlidingWindowCounter(windowSeconds, bucketCount));
+    }
+
+    // created_at is stored as local time without zone, so both sides use the same fixed offset
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,50 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class PayerVelocityFraudRule implements FraudRule {
+
+    private final PaymentVelocitySource velocitySketches;
+
+    @Value("${app.fraud.payer-velocity.threshold:10}")
+    private long velocityThreshold;
+
+    @Override
+    public String getName() {
+        return "payer-velocity";
+    }
+
+    @Override
+    public Cost getDefaultCost() {
+        return Cost.CHEAP;
+    }
+
+    // The payer account is only known once the bank reports the debit
+    @Override
+    public Set<Stage> getStages() {
+        return EnumSet.of(Stage.COMPLETION);
+    }
+
+    @Override
+    public FraudRuleOutcome evaluate(FraudContext context) {
+        if (context.getPayerAccount() == null) {
+            return FraudRuleOutcome.pass();
+        }
+
+        long recentPayments = velocitySketches.payerCount(context.getPayerAccount(), context.getEvaluatedAt());
+
+        if (recentPayments > velocityThreshold) {
+            return FraudRuleOutcome.hit("HIGH_PAYER_VELOCITY", 25);
+        } else if (recentPayments > velocityThreshold / 2) {
+            return FraudRuleOutcome.hit("MEDIUM_PAYER_VELOCITY", 10);
+        }
+        return FraudRuleOutcome.pass();
+    }
+}
@@ -0,0 +1,63 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Approximate velocity per terminal and per payer account, in fixed memory regardless of how many we see
+@Component
+public class PaymentVelocitySketches implements PaymentVelocitySource {
+
+    private final WindowedCountMinSketch terminals;
+    private final WindowedCountMinSketch payers;
+
+    public PaymentVelocitySketches(MeterRegistry meterRegistry,
+                                   @Value("${app.fraud.terminal-velocity.window-seconds:3600}") long terminalWindowSeconds,
+                                   @Value("${app.fraud.payer-velocity.window-seconds:3600}") long payerWindowSeconds,
+                                   @Value("${app.fraud.velocity-sketch.buckets:12}") int buckets,
+                                   @Value("${app.fraud.velocity-sketch.width:4096}") int width,
+                                   @Value("${app.fraud.velocity-sketch.depth:4}") int depth) {
+        this.terminals = new WindowedCountMinSketch(terminalWindowSeconds, buckets, width, depth);
+        this.payers = new WindowedCountMinSketch(payerWindowSeconds, buckets, width, depth);
+
+        Gauge.builder("fraud.velocity.sketch.memory", this, sketches -> sketches.terminals.sizeInBytes())
+                .tag("dimension", "terminal")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("fraud.velocity.sketch.memory", this, sketches -> sketches.payers.sizeInBytes())
+                .tag("dimension", "payer")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void recordTerminal(String merchantId, String terminalId, LocalDateTime at) {
+        terminals.add(terminalKey(merchantId, terminalId), toEpochSecond(at));
+    }
+
+    @Override
+    public long terminalCount(String merchantId, String terminalId, LocalDateTime now) {
+        return terminals.estimate(terminalKey(merchantId, terminalId), toEpochSecond(now));
+    }
+
+    public void recordPayer(String payerAccount, LocalDateTime at) {
+        payers.add(payerAccount, toEpochSecond(at));
+    }
+
+    @Override
+    public long payerCount(String payerAccount, LocalDateTime now) {
+        return payers.estimate(payerAccount, toEpochSecond(now));
+    }
+
+    // Terminal ids are only unique within a merchant
+    private static String terminalKey(String merchantId, String terminalId) {
+        return merchantId + '|' + terminalId;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,11 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.time.LocalDateTime;
+
+// Recent payments per terminal and per payer account; live from the sketches, or replayed
+public interface PaymentVelocitySource {
+
+    long terminalCount(String merchantId, String terminalId, LocalDateTime now);
+
+    long payerCount(String payerAccount, LocalDateTime now);
+}
@@ -0,0 +1,138 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.FraudCheck;
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.enums.RiskLevel;
+import com.roshansutihar.paymentscore.repository.FraudCheckRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores payments with the shadow rules after the initiating transaction commits, off the request
+ * thread. The result (synchronous score plus shadow rule scores) is stored as a separate
+ * fraud_checks row flagged shadow and compared with the synchronous decision; it never affects
+ * the payment. When the scorer falls behind, work is dropped rather than queued without bound.
+ */
+@Component
+@Slf4j
+public class ShadowFraudScorer {
+
+    private final FraudRuleEngine fraudRuleEngine;
+    private final FraudCheckRepository fraudCheckRepository;
+    private final MeterRegistry meterRegistry;
+    private final int blockRiskScore;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter dropped;
+    private final Counter failed;
+
+    public ShadowFraudScorer(FraudRuleEngine fraudRuleEngine,
+                             FraudCheckRepository fraudCheckRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.fraud.block.score:70}") int blockRiskScore,
+                             @Value("${app.fraud.shadow.threads:2}") int threads,
+                             @Value("${app.fraud.shadow.queue-capacity:1000}") int queueCapacity) {
+        this.fraudRuleEngine = fraudRuleEngine;
+        this.fraudCheckRepository = fraudCheckRepository;
+        this.meterRegistry = meterRegistry;
+        this.blockRiskScore = blockRiskScore;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "fraud-shadow-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.dropped = Counter.builder("fraud.shadow.dropped").register(meterRegistry);
+        this.failed = Counter.builder("fraud.shadow.failed").register(meterRegistry);
+    }
+
+    // Inside a transaction the payment is only scored once it has committed, so its id is known
+    public void scheduleAfterCommit(FraudContext context, FraudCheck synchronousCheck) {
+        if (!fraudRuleEngine.hasShadowRules(context.getStage())) {
+            return;
+        }
+
+        Runnable task = () -> score(context, synchronousCheck);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(task);
+                }
+            });
+        } else {
+            submit(task);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    private void score(FraudContext context, FraudCheck synchronousCheck) {
+        PaymentIntent paymentIntent = context.getPaymentIntent();
+        if (paymentIntent.getId() == null) {
+            return;
+        }
+
+        try {
+            FraudEvaluation shadowEvaluation = fraudRuleEngine.evaluateShadow(context);
+
+            int riskScore = synchronousCheck.getRiskScore() + shadowEvaluation.getRiskScore();
+            List<String> triggeredRules = new ArrayList<>(synchronousCheck.getRulesTriggered());
+            triggeredRules.addAll(shadowEvaluation.getTriggeredRules());
+
+            FraudCheck shadowCheck = new FraudCheck();
+            shadowCheck.setPaymentIntent(paymentIntent);
+            shadowCheck.setShadow(true);
+            shadowCheck.setRiskScore(riskScore);
+            shadowCheck.setRiskLevel(RiskLevel.forScore(riskScore));
+            shadowCheck.setRulesTriggered(triggeredRules);
+            fraudCheckRepository.save(shadowCheck);
+
+            boolean synchronousBlock = synchronousCheck.getRiskScore() >= blockRiskScore;
+            boolean shadowBlock = riskScore >= blockRiskScore;
+            Counter.builder("fraud.shadow.checks")
+                    .tag("comparison", synchronousBlock == shadowBlock ? "agree" : "disagree")
+                    .register(meterRegistry)
+                    .increment();
+
+            if (synchronousBlock != shadowBlock) {
+                log.info("Shadow fraud rules disagree for payment intent: {}, synchronous score: {}, shadow score: {}, shadow rules: {}",
+                        paymentIntent.getId(), synchronousCheck.getRiskScore(), riskScore,
+                        shadowEvaluation.getTriggeredRules());
+            }
+
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Shadow fraud scoring failed for payment intent: {}", paymentIntent.getId(), e);
+        }
+    }
+}
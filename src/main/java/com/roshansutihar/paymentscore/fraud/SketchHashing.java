@@ -0,0 +1,33 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.nio.charset.StandardCharsets;
+
+// 64-bit key hashing shared by the probabilistic structures; the second hash is derived for double hashing
+final class SketchHashing {
+
+    private SketchHashing() {
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the murmur3 64-bit mixer
+    static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    static long secondHash(long hash) {
+        return mix(hash ^ 0x9E3779B97F4A7C15L);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,69 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free event counter over a sliding time window, kept as a ring of fixed-width buckets.
+ * Each slot packs the bucket number (high 32 bits) with its count (low 32 bits), so a slot is
+ * reset and incremented by a single CAS. Counts are exact to bucket granularity, and a query
+ * sums a constant number of slots regardless of traffic.
+ */
+public class SlidingWindowCounter {
+
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private final long bucketSeconds;
+    private final AtomicLongArray slots;
+
+    public SlidingWindowCounter(long windowSeconds, int bucketCount) {
+        this.bucketSeconds = Math.max(1, (windowSeconds + bucketCount - 1) / bucketCount);
+        this.slots = new AtomicLongArray(bucketCount);
+    }
+
+    public void increment(long epochSecond) {
+        add(epochSecond, 1);
+    }
+
+    public void add(long epochSecond, long delta) {
+        long bucket = epochSecond / bucketSeconds;
+        int index = (int) Math.floorMod(bucket, (long) slots.length());
+
+        while (true) {
+            long current = slots.get(index);
+            long currentBucket = current >>> 32;
+
+            long next;
+            if (currentBucket == bucket) {
+                next = current + delta;
+            } else if (currentBucket < bucket) {
+                next = (bucket << 32) | (delta & COUNT_MASK);
+            } else {
+                // Slot already reused by a newer bucket; this event has left the window
+                return;
+            }
+
+            if (slots.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    public long count(long nowEpochSecond) {
+        long currentBucket = nowEpochSecond / bucketSeconds;
+        long oldestBucket = currentBucket - slots.length() + 1;
+
+        long total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long slot = slots.get(i);
+            long bucket = slot >>> 32;
+            if (bucket >= oldestBucket && bucket <= currentBucket) {
+                total += slot & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    public long getBucketSeconds() {
+        return bucketSeconds;
+    }
+}
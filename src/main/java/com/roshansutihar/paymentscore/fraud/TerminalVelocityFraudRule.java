@@ -0,0 +1,48 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class TerminalVelocityFraudRule implements FraudRule {
+
+    private final PaymentVelocitySource velocitySketches;
+
+    @Value("${app.fraud.terminal-velocity.threshold:30}")
+    private long velocityThreshold;
+
+    @Override
+    public String getName() {
+        return "terminal-velocity";
+    }
+
+    @Override
+    public Cost getDefaultCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public Set<Stage> getStages() {
+        return EnumSet.allOf(Stage.class);
+    }
+
+    @Override
+    public FraudRuleOutcome evaluate(FraudContext context) {
+        // At initiation the intent being scored is not recorded yet
+        long recentTransactions = velocitySketches.terminalCount(
+                context.getMerchantId(), context.getPaymentIntent().getTerminalId(), context.getEvaluatedAt())
+                + (context.getStage() == Stage.INITIATION ? 1 : 0);
+
+        if (recentTransactions > velocityThreshold) {
+            return FraudRuleOutcome.hit("HIGH_TERMINAL_VELOCITY", 25);
+        } else if (recentTransactions > velocityThreshold / 2) {
+            return FraudRuleOutcome.hit("MEDIUM_TERMINAL_VELOCITY", 10);
+        }
+        return FraudRuleOutcome.pass();
+    }
+}
@@ -0,0 +1,27 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class TransactionTimeFraudRule implements FraudRule {
+
+    @Override
+    public String getName() {
+        return "transaction-time";
+    }
+
+    @Override
+    public Cost getDefaultCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public FraudRuleOutcome evaluate(FraudContext context) {
+        int hour = context.getEvaluatedAt().getHour();
+
+        if (hour >= 0 && hour < 5) {
+            return FraudRuleOutcome.hit("UNUSUAL_TRANSACTION_HOURS", 20);
+        }
+        return FraudRuleOutcome.pass();
+    }
+}
@@ -0,0 +1,38 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class VelocityFraudRule implements FraudRule {
+
+    private final MerchantVelocitySource velocityTracker;
+
+    @Value("${app.fraud.velocity.threshold:10}")
+    private int velocityThreshold;
+
+    @Override
+    public String getName() {
+        return "velocity";
+    }
+
+    @Override
+    public Cost getDefaultCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public FraudRuleOutcome evaluate(FraudContext context) {
+        long recentTransactions = velocityTracker.count(context.getMerchantId(), context.getEvaluatedAt())
+                + context.getUnrecordedIntents();
+
+        if (recentTransactions > velocityThreshold) {
+            return FraudRuleOutcome.hit("HIGH_TRANSACTION_VELOCITY", 25);
+        } else if (recentTransactions > velocityThreshold / 2) {
+            return FraudRuleOutcome.hit("MEDIUM_TRANSACTION_VELOCITY", 10);
+        }
+        return FraudRuleOutcome.pass();
+    }
+}
@@ -0,0 +1,82 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Approximate per-key event counts over a sliding time window in fixed memory, however many
+ * distinct keys are seen. The window is a ring of count-min sketches, one per time bucket,
+ * replaced by CAS as time moves on. Estimates never undercount; with width w and depth d an
+ * estimate exceeds the true count by more than (e / w) * events in window with probability
+ * at most e^-d.
+ */
+public class WindowedCountMinSketch {
+
+    private final long windowSeconds;
+    private final long bucketSeconds;
+    private final int width;
+    private final int depth;
+    private final AtomicReferenceArray<Slot> slots;
+
+    public WindowedCountMinSketch(long windowSeconds, int bucketCount, int width, int depth) {
+        this.windowSeconds = windowSeconds;
+        this.bucketSeconds = Math.max(1, (windowSeconds + bucketCount - 1) / bucketCount);
+        this.width = width;
+        this.depth = depth;
+        // One spare slot so the oldest bucket still inside the window is never overwritten early
+        this.slots = new AtomicReferenceArray<>(bucketCount + 1);
+    }
+
+    public void add(String key, long epochSecond) {
+        long bucket = epochSecond / bucketSeconds;
+        int index = (int) Math.floorMod(bucket, (long) slots.length());
+        long hash1 = SketchHashing.hash(key);
+        long hash2 = SketchHashing.secondHash(hash1);
+
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.bucket() == bucket) {
+                for (int row = 0; row < depth; row++) {
+                    slot.counters().incrementAndGet(cell(row, hash1, hash2));
+                }
+                return;
+            }
+            if (slot != null && slot.bucket() > bucket) {
+                return;
+            }
+            slots.compareAndSet(index, slot, new Slot(bucket, new AtomicLongArray(width * depth)));
+        }
+    }
+
+    public long estimate(String key, long nowEpochSecond) {
+        long currentBucket = nowEpochSecond / bucketSeconds;
+        long oldestBucket = (nowEpochSecond - windowSeconds) / bucketSeconds;
+        long hash1 = SketchHashing.hash(key);
+        long hash2 = SketchHashing.secondHash(hash1);
+
+        long total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot == null || slot.bucket() < oldestBucket || slot.bucket() > currentBucket) {
+                continue;
+            }
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, slot.counters().get(cell(row, hash1, hash2)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    public long sizeInBytes() {
+        return (long) slots.length() * width * depth * Long.BYTES;
+    }
+
+    private int cell(int row, long hash1, long hash2) {
+        return row * width + (int) Math.floorMod(hash1 + row * hash2, (long) width);
+    }
+
+    private record Slot(long bucket, AtomicLongArray counters) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.roshansutihar.paymentscore.fraud.backtest;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+public class BacktestReport {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long payments;
+    // Blocked under the candidate configuration
+    private long blocked;
+    // Blocked by the fraud check recorded at the time
+    private long baselineBlocked;
+    private long newlyBlocked;
+    private long newlyAllowed;
+    private long durationMillis;
+    private Map<String, Long> hitsByRule = new TreeMap<>();
+    // Payments the candidate blocks only because of this rule: without its score they would pass
+    private Map<String, Long> decisiveByRule = new TreeMap<>();
+    private Map<String, MerchantResult> merchants = new TreeMap<>();
+
+    public void merge(BacktestReport other) {
+        payments += other.payments;
+        blocked += other.blocked;
+        baselineBlocked += other.baselineBlocked;
+        newlyBlocked += other.newlyBlocked;
+        newlyAllowed += other.newlyAllowed;
+        other.hitsByRule.forEach((rule, count) -> hitsByRule.merge(rule, count, Long::sum));
+        other.decisiveByRule.forEach((rule, count) -> decisiveByRule.merge(rule, count, Long::sum));
+        merchants.putAll(other.merchants);
+    }
+
+    @Data
+    public static class MerchantResult {
+        private long payments;
+        private long blocked;
+        private long newlyBlocked;
+        private long newlyAllowed;
+    }
+}
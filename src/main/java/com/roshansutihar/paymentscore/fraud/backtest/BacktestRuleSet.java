@@ -0,0 +1,82 @@
+package com.roshansutihar.paymentscore.fraud.backtest;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.ToString;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Candidate fraud configuration for a backtest. Every app.fraud.&lt;key&gt; is read from
+ * app.fraud.backtest.candidate.&lt;key&gt; first and falls back to the live value, so a candidate
+ * only needs to list what it changes. The rules and the engine are configured from
+ * {@link #getEnvironment()}; the remaining fields size the replayed state.
+ */
+@Data
+@Builder
+public class BacktestRuleSet {
+
+    private static final String LIVE_PREFIX = "app.fraud.";
+    private static final String CANDIDATE_PREFIX = "app.fraud.backtest.candidate.";
+
+    @ToString.Exclude
+    private ConfigurableEnvironment environment;
+    private int blockScore;
+    private long amountMinSamples;
+    private double amountRelativeAccuracy;
+    private int amountBootstrapDays;
+    private long velocityWindowSeconds;
+    private int velocityBuckets;
+    private long duplicateWindowMinutes;
+    private boolean duplicateIncludeTerminal;
+    private long terminalVelocityWindowSeconds;
+    private int terminalVelocityBuckets;
+
+    public static BacktestRuleSet from(ConfigurableEnvironment live) {
+        StandardEnvironment candidate = new StandardEnvironment();
+        live.getPropertySources().forEach(candidate.getPropertySources()::addLast);
+        candidate.getPropertySources().addFirst(new CandidatePropertySource(live));
+        candidate.setConversionService(live.getConversionService());
+
+        return BacktestRuleSet.builder()
+                .environment(candidate)
+                .blockScore(property(candidate, "block.score", Integer.class, 70))
+                .amountMinSamples(property(candidate, "amount.sketch.min-samples", Long.class, 100L))
+                .amountRelativeAccuracy(property(candidate, "amount.sketch.relative-accuracy", Double.class, 0.01))
+                .amountBootstrapDays(property(candidate, "amount.sketch.bootstrap-days", Integer.class, 90))
+                .velocityWindowSeconds(property(candidate, "velocity.window-seconds", Long.class, 3600L))
+                .velocityBuckets(property(candidate, "velocity.buckets", Integer.class, 60))
+                .duplicateWindowMinutes(property(candidate, "duplicate.window-minutes", Long.class, 10L))
+                .duplicateIncludeTerminal(property(candidate, "duplicate.include-terminal", Boolean.class, false))
+                .terminalVelocityWindowSeconds(property(candidate, "terminal-velocity.window-seconds", Long.class, 3600L))
+                .terminalVelocityBuckets(property(candidate, "velocity-sketch.buckets", Integer.class, 12))
+                .build();
+    }
+
+    // History needed before the backtest range so windowed rules start with realistic state
+    public long warmUpSeconds() {
+        return Math.max(Math.max(velocityWindowSeconds, terminalVelocityWindowSeconds), duplicateWindowMinutes * 60);
+    }
+
+    private static <T> T property(Environment environment, String key, Class<T> type, T defaultValue) {
+        return environment.getProperty(LIVE_PREFIX + key, type, defaultValue);
+    }
+
+    // Answers app.fraud.<key> with app.fraud.backtest.candidate.<key> when the candidate sets it
+    private static class CandidatePropertySource extends PropertySource<Environment> {
+
+        CandidatePropertySource(Environment live) {
+            super("fraudBacktestCandidate", live);
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            if (!name.startsWith(LIVE_PREFIX) || name.startsWith(CANDIDATE_PREFIX)) {
+                return null;
+            }
+            return getSource().getProperty(CANDIDATE_PREFIX + name.substring(LIVE_PREFIX.length()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.roshansutihar.paymentscore.fraud.backtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// Run with --app.fraud.backtest.enabled=true --app.fraud.backtest.from=YYYY-MM-DD --app.fraud.backtest.to=YYYY-MM-DD
+// plus any app.fraud.backtest.candidate.* overrides, ideally with --spring.main.web-application-type=none
+@Component
+@ConditionalOnProperty(name = "app.fraud.backtest.enabled", havingValue = "true")
+@Slf4j
+@RequiredArgsConstructor
+public class FraudBacktestRunner implements ApplicationRunner {
+
+    private final FraudBacktester fraudBacktester;
+    private final ConfigurableEnvironment environment;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${app.fraud.backtest.from}")
+    private String from;
+
+    // Inclusive
+    @Value("${app.fraud.backtest.to}")
+    private String to;
+
+    @Value("${app.fraud.backtest.output:}")
+    private String output;
+
+    @Value("${app.fraud.backtest.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        BacktestRuleSet rules = BacktestRuleSet.from(environment);
+        log.info("Running fraud backtest with candidate rules: {}", rules);
+
+        BacktestReport report = fraudBacktester.run(
+                LocalDate.parse(from).atStartOfDay(), LocalDate.parse(to).plusDays(1).atStartOfDay(), rules);
+
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        if (output.isBlank()) {
+            log.info("Fraud backtest report:\n{}", json);
+        } else {
+            Files.writeString(Path.of(output), json);
+            log.info("Fraud backtest report written to {}", output);
+        }
+
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
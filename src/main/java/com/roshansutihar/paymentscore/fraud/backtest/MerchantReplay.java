@@ -0,0 +1,100 @@
+package com.roshansutihar.paymentscore.fraud.backtest;
+
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.fraud.FraudContext;
+import com.roshansutihar.paymentscore.fraud.FraudEvaluation;
+import com.roshansutihar.paymentscore.fraud.FraudRuleEngine;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Replays one merchant's intents in created_at order through the candidate rule engine
+class MerchantReplay {
+
+    private final String merchantId;
+    private final FraudRuleEngine engine;
+    private final ReplayFraudState state;
+    private final LocalDateTime from;
+    private final int blockScore;
+    private final int baselineBlockScore;
+
+    private final BacktestReport report = new BacktestReport();
+    private final BacktestReport.MerchantResult result = new BacktestReport.MerchantResult();
+
+    MerchantReplay(String merchantId, FraudRuleEngine engine, ReplayFraudState state, LocalDateTime from,
+                   int blockScore, int baselineBlockScore) {
+        this.merchantId = merchantId;
+        this.engine = engine;
+        this.state = state;
+        this.from = from;
+        this.blockScore = blockScore;
+        this.baselineBlockScore = baselineBlockScore;
+    }
+
+    // Rows before the backtest range only build up state
+    void accept(ResultSet rs) throws SQLException {
+        String terminalId = rs.getString("terminal_id");
+        BigDecimal amount = rs.getBigDecimal("amount");
+        String status = rs.getString("status");
+        LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+        int recordedScore = rs.getInt("risk_score");
+        boolean hasRecordedCheck = !rs.wasNull();
+
+        if (!createdAt.isBefore(from)) {
+            PaymentIntent paymentIntent = new PaymentIntent();
+            paymentIntent.setMerchantId(merchantId);
+            paymentIntent.setTerminalId(terminalId);
+            paymentIntent.setAmount(amount);
+            paymentIntent.setCreatedAt(createdAt);
+
+            // Scored as a batch of one, before the intent itself is counted, as at initiation
+            FraudEvaluation evaluation = engine.evaluate(FraudContext.forInitiation(paymentIntent, createdAt, 1));
+            tally(evaluation, hasRecordedCheck && recordedScore >= baselineBlockScore);
+        }
+
+        state.recordCreated(merchantId, terminalId, createdAt);
+        if ("COMPLETED".equals(status)) {
+            state.recordCompleted(merchantId, terminalId, amount, createdAt);
+        }
+    }
+
+    BacktestReport report() {
+        if (result.getPayments() > 0) {
+            report.getMerchants().put(merchantId, result);
+        }
+        return report;
+    }
+
+    private void tally(FraudEvaluation evaluation, boolean baselineBlocked) {
+        int riskScore = evaluation.getRiskScore();
+        Map<String, Integer> ruleScores = evaluation.getRuleScores();
+        boolean blocked = riskScore >= blockScore;
+
+        report.setPayments(report.getPayments() + 1);
+        result.setPayments(result.getPayments() + 1);
+        ruleScores.keySet().forEach(rule -> report.getHitsByRule().merge(rule, 1L, Long::sum));
+
+        if (blocked) {
+            report.setBlocked(report.getBlocked() + 1);
+            result.setBlocked(result.getBlocked() + 1);
+            ruleScores.forEach((rule, contribution) -> {
+                if (riskScore - contribution < blockScore) {
+                    report.getDecisiveByRule().merge(rule, 1L, Long::sum);
+                }
+            });
+        }
+        if (baselineBlocked) {
+            report.setBaselineBlocked(report.getBaselineBlocked() + 1);
+        }
+        if (blocked && !baselineBlocked) {
+            report.setNewlyBlocked(report.getNewlyBlocked() + 1);
+            result.setNewlyBlocked(result.getNewlyBlocked() + 1);
+        } else if (!blocked && baselineBlocked) {
+            report.setNewlyAllowed(report.getNewlyAllowed() + 1);
+            result.setNewlyAllowed(result.getNewlyAllowed() + 1);
+        }
+    }
+}
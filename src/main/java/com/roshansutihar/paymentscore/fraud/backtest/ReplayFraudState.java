@@ -0,0 +1,133 @@
+package com.roshansutihar.paymentscore.fraud.backtest;
+
+import com.roshansutihar.paymentscore.fraud.AmountProfileSource;
+import com.roshansutihar.paymentscore.fraud.AmountSketch;
+import com.roshansutihar.paymentscore.fraud.DuplicatePaymentSource;
+import com.roshansutihar.paymentscore.fraud.MerchantAmountProfiles;
+import com.roshansutihar.paymentscore.fraud.MerchantVelocitySource;
+import com.roshansutihar.paymentscore.fraud.PaymentVelocitySource;
+import com.roshansutihar.paymentscore.fraud.SlidingWindowCounter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the fraud rules would have known at each point of a replay, rebuilt from the replayed
+ * intents instead of this node's live trackers. State is kept per merchant: each merchant is
+ * replayed by one thread, in created_at order, and dropped once its replay ends. Payer velocity
+ * always reads zero, since the payer account is not stored with the intent.
+ */
+class ReplayFraudState implements MerchantVelocitySource, PaymentVelocitySource, DuplicatePaymentSource, AmountProfileSource {
+
+    private final BacktestRuleSet rules;
+    private final Map<String, MerchantHistory> merchants = new ConcurrentHashMap<>();
+
+    ReplayFraudState(BacktestRuleSet rules) {
+        this.rules = rules;
+    }
+
+    void recordCreated(String merchantId, String terminalId, LocalDateTime createdAt) {
+        MerchantHistory history = history(merchantId);
+        history.intents.increment(toEpochSecond(createdAt));
+        history.terminals
+                .computeIfAbsent(terminalId, id -> new SlidingWindowCounter(
+                        rules.getTerminalVelocityWindowSeconds(), rules.getTerminalVelocityBuckets()))
+                .increment(toEpochSecond(createdAt));
+    }
+
+    // Final status stands in for the status at scoring time
+    void recordCompleted(String merchantId, String terminalId, BigDecimal amount, LocalDateTime createdAt) {
+        MerchantHistory history = history(merchantId);
+        String key = duplicateKey(terminalId, amount);
+        history.completed.addLast(new CompletedPayment(createdAt, key));
+        history.completedKeys.merge(key, 1, Integer::sum);
+        history.amounts.add(amount);
+    }
+
+    // Amount history from before the replayed rows, standing in for the live profile's months of completions
+    void addAmountBucket(String merchantId, int index, long count) {
+        history(merchantId).amounts.addToBucket(index, count);
+    }
+
+    double amountLnGamma() {
+        return new AmountSketch(rules.getAmountRelativeAccuracy()).getLnGamma();
+    }
+
+    void release(String merchantId) {
+        merchants.remove(merchantId);
+    }
+
+    @Override
+    public long count(String merchantId, LocalDateTime now) {
+        return history(merchantId).intents.count(toEpochSecond(now));
+    }
+
+    @Override
+    public long terminalCount(String merchantId, String terminalId, LocalDateTime now) {
+        SlidingWindowCounter counter = history(merchantId).terminals.get(terminalId);
+        return counter != null ? counter.count(toEpochSecond(now)) : 0;
+    }
+
+    @Override
+    public long payerCount(String payerAccount, LocalDateTime now) {
+        return 0;
+    }
+
+    @Override
+    public boolean isRecentDuplicate(String merchantId, String terminalId, BigDecimal amount, LocalDateTime now) {
+        MerchantHistory history = history(merchantId);
+        LocalDateTime since = now.minusMinutes(rules.getDuplicateWindowMinutes());
+        while (!history.completed.isEmpty() && history.completed.peekFirst().createdAt().isBefore(since)) {
+            history.completedKeys.computeIfPresent(history.completed.pollFirst().key(),
+                    (key, count) -> count > 1 ? count - 1 : null);
+        }
+        return history.completedKeys.containsKey(duplicateKey(terminalId, amount));
+    }
+
+    @Override
+    public Optional<MerchantAmountProfiles.AmountThresholds> thresholds(String merchantId) {
+        AmountSketch amounts = history(merchantId).amounts;
+        if (amounts.count() < rules.getAmountMinSamples()) {
+            return Optional.empty();
+        }
+        return Optional.of(new MerchantAmountProfiles.AmountThresholds(
+                amounts.quantile(0.95), amounts.quantile(0.99), amounts.count()));
+    }
+
+    private MerchantHistory history(String merchantId) {
+        return merchants.computeIfAbsent(merchantId, id -> new MerchantHistory(
+                new SlidingWindowCounter(rules.getVelocityWindowSeconds(), rules.getVelocityBuckets()),
+                new AmountSketch(rules.getAmountRelativeAccuracy())));
+    }
+
+    private String duplicateKey(String terminalId, BigDecimal amount) {
+        String key = amount.stripTrailingZeros().toPlainString();
+        return rules.isDuplicateIncludeTerminal() ? key + '|' + terminalId : key;
+    }
+
+    // Same fixed offset as the live trackers, since created_at carries no zone
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private record MerchantHistory(SlidingWindowCounter intents,
+                                   Map<String, SlidingWindowCounter> terminals,
+                                   Deque<CompletedPayment> completed,
+                                   Map<String, Integer> completedKeys,
+                                   AmountSketch amounts) {
+
+        MerchantHistory(SlidingWindowCounter intents, AmountSketch amounts) {
+            this(intents, new HashMap<>(), new ArrayDeque<>(), new HashMap<>(), amounts);
+        }
+    }
+
+    private record CompletedPayment(LocalDateTime createdAt, String key) {
+    }
+}
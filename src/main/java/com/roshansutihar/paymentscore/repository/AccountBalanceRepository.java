@@ -0,0 +1,18 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.AccountBalance;
+import com.roshansutihar.paymentscore.entity.AccountBalanceId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, AccountBalanceId>, AccountBalanceUpdateRepository {
+
+    @Query("SELECT SUM(ab.balance) FROM AccountBalance ab WHERE ab.accountNumber = :accountNumber")
+    Optional<BigDecimal> findBalance(@Param("accountNumber") String accountNumber);
+}
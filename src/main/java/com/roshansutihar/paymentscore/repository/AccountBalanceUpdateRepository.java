@@ -0,0 +1,14 @@
+package com.roshansutihar.paymentscore.repository;
+
+import java.math.BigDecimal;
+
+public interface AccountBalanceUpdateRepository {
+
+    // Atomically applies a signed delta to one shard and returns the account's balance across all shards.
+    // Other shards are read from the statement snapshot, so the total is only exact when no other shard
+    // of the account is written or consolidated concurrently, i.e. for unsharded accounts.
+    BigDecimal applyDelta(String accountNumber, int shard, BigDecimal delta);
+
+    // Moves the balance of shards 1..n into shard 0 without changing the account total
+    void consolidateShards(String accountNumber);
+}
@@ -0,0 +1,45 @@
+package com.roshansutihar.paymentscore.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+// Plain JDBC so the upsert does not force Hibernate to flush pending batched inserts first
+@RequiredArgsConstructor
+public class AccountBalanceUpdateRepositoryImpl implements AccountBalanceUpdateRepository {
+
+    // Other shards are read without locking, so only the written shard row is contended
+    private static final String APPLY_DELTA_SQL = "WITH updated AS (" +
+            "INSERT INTO account_balances (account_number, shard, balance, updated_at) " +
+            "VALUES (?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (account_number, shard) DO UPDATE " +
+            "SET balance = account_balances.balance + EXCLUDED.balance, updated_at = CURRENT_TIMESTAMP " +
+            "RETURNING balance) " +
+            "SELECT (SELECT balance FROM updated) + COALESCE((SELECT SUM(balance) FROM account_balances " +
+            "WHERE account_number = ? AND shard <> ?), 0)";
+
+    private static final String CONSOLIDATE_SQL = "WITH old AS (" +
+            "SELECT shard, balance FROM account_balances " +
+            "WHERE account_number = ? AND shard > 0 AND balance <> 0 FOR UPDATE), " +
+            "drained AS (" +
+            "UPDATE account_balances ab SET balance = 0, updated_at = CURRENT_TIMESTAMP FROM old " +
+            "WHERE ab.account_number = ? AND ab.shard = old.shard RETURNING old.balance) " +
+            "INSERT INTO account_balances (account_number, shard, balance, updated_at) " +
+            "SELECT ?, 0, SUM(balance), CURRENT_TIMESTAMP FROM drained HAVING COUNT(*) > 0 " +
+            "ON CONFLICT (account_number, shard) DO UPDATE " +
+            "SET balance = account_balances.balance + EXCLUDED.balance, updated_at = CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public BigDecimal applyDelta(String accountNumber, int shard, BigDecimal delta) {
+        return jdbcTemplate.queryForObject(APPLY_DELTA_SQL, BigDecimal.class,
+                accountNumber, shard, delta, accountNumber, shard);
+    }
+
+    @Override
+    public void consolidateShards(String accountNumber) {
+        jdbcTemplate.update(CONSOLIDATE_SQL, accountNumber, accountNumber, accountNumber);
+    }
+}
@@ -12,8 +12,8 @@ import java.util.Optional;
 @Repository
 public interface FraudCheckRepository extends JpaRepository<FraudCheck, Long> {
 
-    Optional<FraudCheck> findByPaymentIntentSessionId(String sessionId);
+    Optional<FraudCheck> findByPaymentIntentSessionIdAndShadowFalse(String sessionId);
 
-    @Query("SELECT fc FROM FraudCheck fc WHERE fc.paymentIntent.id = :paymentIntentId")
+    @Query("SELECT fc FROM FraudCheck fc WHERE fc.paymentIntent.id = :paymentIntentId AND fc.shadow = false")
     Optional<FraudCheck> findByPaymentIntentId(@Param("paymentIntentId") Long paymentIntentId);
 }
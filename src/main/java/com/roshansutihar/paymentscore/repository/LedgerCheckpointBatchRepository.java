@@ -0,0 +1,14 @@
+package com.roshansutihar.paymentscore.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface LedgerCheckpointBatchRepository {
+
+    // Writes a checkpoint at asOf for every account with at least minEntries new entries, or whose
+    // last checkpoint is older than staleBefore; only entries after scanFrom are read
+    int createCheckpoints(LocalDateTime asOf, LocalDateTime scanFrom, long minEntries, LocalDateTime staleBefore);
+
+    // Start time of the oldest transaction still open in this database, other than the caller's own
+    Optional<LocalDateTime> findOldestOpenTransactionStart();
+}
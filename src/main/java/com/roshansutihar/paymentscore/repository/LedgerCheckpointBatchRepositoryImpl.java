@@ -0,0 +1,48 @@
+package com.roshansutihar.paymentscore.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class LedgerCheckpointBatchRepositoryImpl implements LedgerCheckpointBatchRepository {
+
+    private static final String CREATE_CHECKPOINTS_SQL = "WITH latest AS (" +
+            "SELECT DISTINCT ON (account_number) account_number, as_of_time, balance " +
+            "FROM ledger_checkpoints ORDER BY account_number, as_of_time DESC), " +
+            "delta AS (" +
+            "SELECT le.account_number, MAX(le.id) AS max_entry_id, COUNT(*) AS entry_count, " +
+            "SUM(CASE WHEN le.entry_type = 'CREDIT' THEN le.amount ELSE -le.amount END) AS net_amount, " +
+            "cp.as_of_time AS previous_as_of, cp.balance AS previous_balance " +
+            "FROM ledger_entries le " +
+            "LEFT JOIN latest cp ON cp.account_number = le.account_number " +
+            "WHERE le.created_at > ? AND le.created_at <= ? " +
+            "AND (cp.as_of_time IS NULL OR le.created_at > cp.as_of_time) " +
+            "GROUP BY le.account_number, cp.as_of_time, cp.balance) " +
+            "INSERT INTO ledger_checkpoints (account_number, as_of_entry_id, as_of_time, balance, entry_count, created_at) " +
+            "SELECT account_number, max_entry_id, ?, COALESCE(previous_balance, 0) + net_amount, entry_count, CURRENT_TIMESTAMP " +
+            "FROM delta " +
+            "WHERE entry_count >= ? OR previous_as_of IS NULL OR previous_as_of < ? " +
+            "ON CONFLICT (account_number, as_of_time) DO NOTHING";
+
+    // Sessions of other roles show a null xact_start, so this only covers the application's own role
+    private static final String OLDEST_OPEN_TRANSACTION_SQL = "SELECT MIN(xact_start)::timestamp " +
+            "FROM pg_stat_activity " +
+            "WHERE datname = current_database() AND pid <> pg_backend_pid() AND xact_start IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int createCheckpoints(LocalDateTime asOf, LocalDateTime scanFrom, long minEntries, LocalDateTime staleBefore) {
+        return jdbcTemplate.update(CREATE_CHECKPOINTS_SQL, scanFrom, asOf, asOf, minEntries, staleBefore);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findOldestOpenTransactionStart() {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_OPEN_TRANSACTION_SQL, Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+}
@@ -0,0 +1,22 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Long>, LedgerCheckpointBatchRepository {
+
+    Optional<LedgerCheckpoint> findFirstByAccountNumberAndAsOfTimeLessThanEqualOrderByAsOfTimeDesc(
+            String accountNumber, LocalDateTime asOf);
+
+    List<LedgerCheckpoint> findTop2ByAccountNumberOrderByAsOfTimeDesc(String accountNumber);
+
+    @Query("SELECT MAX(lc.asOfTime) FROM LedgerCheckpoint lc")
+    Optional<LocalDateTime> findLatestAsOfTime();
+}
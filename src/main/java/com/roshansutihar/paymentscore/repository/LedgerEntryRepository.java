@@ -1,8 +1,15 @@
 package com.roshansutihar.paymentscore.repository;
 
+import com.roshansutihar.paymentscore.dtos.MerchantStatusTotalsDTO;
+import com.roshansutihar.paymentscore.dtos.MerchantTransactionDTO;
+import com.roshansutihar.paymentscore.dtos.MerchantTransactionTotalsDTO;
 import com.roshansutihar.paymentscore.entity.LedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +17,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 
@@ -23,10 +31,88 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>
     @Query("SELECT SUM(le.amount) FROM LedgerEntry le WHERE le.accountNumber = :accountNumber AND le.entryType = 'DEBIT'")
     Optional<BigDecimal> getTotalDebits(@Param("accountNumber") String accountNumber);
 
-    List<LedgerEntry> findByAccountNumberAndEntryTypeAndCreatedAtBetween(
-            String accountNumber, String entryType, LocalDateTime start, LocalDateTime end);
+    String MERCHANT_TRANSACTIONS_FROM = "FROM LedgerEntry le " +
+            "LEFT JOIN PaymentIntent pi ON pi.id = le.paymentIntentId " +
+            "LEFT JOIN TransactionCommission tc ON tc.paymentIntentId = le.paymentIntentId " +
+            "LEFT JOIN RailTransfer rt ON rt.paymentIntent.id = le.paymentIntentId " +
+            "WHERE le.accountNumber = :accountNumber AND le.entryType = 'CREDIT' " +
+            "AND le.createdAt BETWEEN :start AND :end " +
+            "AND (:status IS NULL OR CAST(rt.status AS String) = :status) ";
+
+    // One row per merchant credit, joined with its intent, commission and rail transfer
+    String MERCHANT_TRANSACTION_SELECT = "SELECT new com.roshansutihar.paymentscore.dtos.MerchantTransactionDTO(" +
+            "COALESCE(pi.sessionId, 'N/A'), COALESCE(pi.transactionRef, 'N/A'), COALESCE(pi.amount, le.amount), " +
+            "COALESCE(pi.currency, 'USD'), COALESCE(CAST(rt.status AS String), 'UNKNOWN'), le.createdAt, " +
+            "rt.settlementDate, COALESCE(tc.commissionAmount, 0), le.amount, rt.settlementDate, le.id) ";
+
+    @Query(MERCHANT_TRANSACTION_SELECT + MERCHANT_TRANSACTIONS_FROM + "ORDER BY le.createdAt, le.id")
+    List<MerchantTransactionDTO> findMerchantTransactions(@Param("accountNumber") String accountNumber,
+                                                          @Param("start") LocalDateTime start,
+                                                          @Param("end") LocalDateTime end,
+                                                          @Param("status") String status,
+                                                          Limit limit);
+
+    // Next page after the (created_at, id) position of the previous one
+    @Query(MERCHANT_TRANSACTION_SELECT + MERCHANT_TRANSACTIONS_FROM +
+            "AND (le.createdAt, le.id) > (:afterCreatedAt, :afterId) " +
+            "ORDER BY le.createdAt, le.id")
+    List<MerchantTransactionDTO> findMerchantTransactionsAfter(@Param("accountNumber") String accountNumber,
+                                                               @Param("start") LocalDateTime start,
+                                                               @Param("end") LocalDateTime end,
+                                                               @Param("status") String status,
+                                                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                               @Param("afterId") Long afterId,
+                                                               Limit limit);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(MERCHANT_TRANSACTION_SELECT + MERCHANT_TRANSACTIONS_FROM + "ORDER BY le.createdAt, le.id")
+    Stream<MerchantTransactionDTO> streamMerchantTransactions(@Param("accountNumber") String accountNumber,
+                                                              @Param("start") LocalDateTime start,
+                                                              @Param("end") LocalDateTime end,
+                                                              @Param("status") String status);
+
+    @Query("SELECT new com.roshansutihar.paymentscore.dtos.MerchantTransactionTotalsDTO(" +
+            "COUNT(le), COALESCE(SUM(COALESCE(pi.amount, le.amount)), 0)) " + MERCHANT_TRANSACTIONS_FROM)
+    MerchantTransactionTotalsDTO getMerchantTransactionTotals(@Param("accountNumber") String accountNumber,
+                                                              @Param("start") LocalDateTime start,
+                                                              @Param("end") LocalDateTime end,
+                                                              @Param("status") String status);
+
+    // Same totals as merchant_daily_rollups, computed from the raw rows of a partial day
+    String MERCHANT_STATUS_TOTALS_SELECT = "SELECT new com.roshansutihar.paymentscore.dtos.MerchantStatusTotalsDTO(" +
+            "CAST(rt.status AS String), COUNT(le), SUM(COALESCE(pi.amount, le.amount)), " +
+            "SUM(COALESCE(tc.commissionAmount, 0)), SUM(le.amount)) " +
+            "FROM LedgerEntry le " +
+            "LEFT JOIN PaymentIntent pi ON pi.id = le.paymentIntentId " +
+            "LEFT JOIN TransactionCommission tc ON tc.paymentIntentId = le.paymentIntentId " +
+            "LEFT JOIN RailTransfer rt ON rt.paymentIntent.id = le.paymentIntentId " +
+            "WHERE le.accountNumber = :accountNumber AND le.entryType = 'CREDIT' AND le.createdAt >= :from ";
+
+    @Query(MERCHANT_STATUS_TOTALS_SELECT + "AND le.createdAt < :to GROUP BY rt.status")
+    List<MerchantStatusTotalsDTO> sumMerchantCreditsByStatusBefore(@Param("accountNumber") String accountNumber,
+                                                                   @Param("from") LocalDateTime from,
+                                                                   @Param("to") LocalDateTime to);
+
+    @Query(MERCHANT_STATUS_TOTALS_SELECT + "AND le.createdAt <= :to GROUP BY rt.status")
+    List<MerchantStatusTotalsDTO> sumMerchantCreditsByStatusThrough(@Param("accountNumber") String accountNumber,
+                                                                    @Param("from") LocalDateTime from,
+                                                                    @Param("to") LocalDateTime to);
 
     List<LedgerEntry> findByAccountNumberAndEntryType(String accountNumber, String entryType);
 
+    @Query("SELECT COALESCE(SUM(CASE WHEN le.entryType = 'CREDIT' THEN le.amount ELSE -le.amount END), 0) " +
+            "FROM LedgerEntry le WHERE le.accountNumber = :accountNumber " +
+            "AND le.createdAt > :from AND le.createdAt <= :to")
+    BigDecimal sumNetAmountBetween(@Param("accountNumber") String accountNumber,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    List<LedgerEntry> findByAccountNumberAndCreatedAtBetweenOrderByCreatedAtAsc(
+            String accountNumber, LocalDateTime start, LocalDateTime end);
+
 
 }
\ No newline at end of file
@@ -2,7 +2,11 @@ package com.roshansutihar.paymentscore.repository;
 
 import com.roshansutihar.paymentscore.entity.MerchantAccount;
 import com.roshansutihar.paymentscore.enums.MerchantStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +16,9 @@ public interface MerchantAccountRepository extends JpaRepository<MerchantAccount
     Optional<MerchantAccount> findByMerchantId(String merchantId);
     Optional<MerchantAccount> findByMerchantIdAndStatus(String merchantId, String status);
     boolean existsByMerchantId(String merchantId);
+
+    // Serializes settlement creation per merchant
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MerchantAccount m WHERE m.merchantId = :merchantId")
+    Optional<MerchantAccount> findByMerchantIdForUpdate(@Param("merchantId") String merchantId);
 }
@@ -0,0 +1,10 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.MerchantAmountSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MerchantAmountSketchRepository extends JpaRepository<MerchantAmountSketch, String>,
+        MerchantAmountSketchUpdateRepository {
+}
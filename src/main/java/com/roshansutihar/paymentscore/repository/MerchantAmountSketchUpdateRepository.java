@@ -0,0 +1,16 @@
+package com.roshansutihar.paymentscore.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface MerchantAmountSketchUpdateRepository {
+
+    // Adds per-bucket counts to the merchant's stored sketch and returns the merged buckets; a row built
+    // with another relative accuracy is replaced, since its bucket indexes mean something else
+    Map<String, Long> addBuckets(String merchantId, double relativeAccuracy, Map<String, Long> bucketCounts,
+                                 LocalDateTime updatedAt);
+
+    // Stores a sketch built from history unless the merchant already has one, e.g. from another node starting up
+    void insertIfAbsent(String merchantId, double relativeAccuracy, Map<String, Long> bucketCounts,
+                        LocalDateTime updatedAt);
+}
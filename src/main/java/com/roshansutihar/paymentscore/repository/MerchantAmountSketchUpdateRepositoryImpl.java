@@ -0,0 +1,72 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Additive, so every node can write the completions it recorded without erasing the others'
+@RequiredArgsConstructor
+public class MerchantAmountSketchUpdateRepositoryImpl implements MerchantAmountSketchUpdateRepository {
+
+    private static final String ADD_BUCKETS_SQL = "INSERT INTO merchant_amount_sketches AS s " +
+            "(merchant_id, relative_accuracy, sample_count, bucket_counts, updated_at) " +
+            "VALUES (?, ?, ?, ?::jsonb, ?) " +
+            "ON CONFLICT (merchant_id) DO UPDATE SET " +
+            "bucket_counts = CASE WHEN s.relative_accuracy = EXCLUDED.relative_accuracy THEN (" +
+            "SELECT COALESCE(jsonb_object_agg(b.key, b.total), '{}'::jsonb) FROM (" +
+            "SELECT key, SUM(value::bigint) AS total FROM (" +
+            "SELECT key, value FROM jsonb_each_text(s.bucket_counts) " +
+            "UNION ALL SELECT key, value FROM jsonb_each_text(EXCLUDED.bucket_counts)) u GROUP BY key) b) " +
+            "ELSE EXCLUDED.bucket_counts END, " +
+            "sample_count = CASE WHEN s.relative_accuracy = EXCLUDED.relative_accuracy " +
+            "THEN s.sample_count + EXCLUDED.sample_count ELSE EXCLUDED.sample_count END, " +
+            "relative_accuracy = EXCLUDED.relative_accuracy, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "RETURNING bucket_counts::text";
+
+    private static final String INSERT_IF_ABSENT_SQL = "INSERT INTO merchant_amount_sketches " +
+            "(merchant_id, relative_accuracy, sample_count, bucket_counts, updated_at) " +
+            "VALUES (?, ?, ?, ?::jsonb, ?) ON CONFLICT (merchant_id) DO NOTHING";
+
+    private static final TypeReference<Map<String, Long>> BUCKETS = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Map<String, Long> addBuckets(String merchantId, double relativeAccuracy, Map<String, Long> bucketCounts,
+                                        LocalDateTime updatedAt) {
+        String merged = jdbcTemplate.queryForObject(ADD_BUCKETS_SQL, String.class, merchantId, relativeAccuracy,
+                sampleCount(bucketCounts), toJson(bucketCounts), updatedAt);
+        try {
+            return objectMapper.readValue(merged, BUCKETS);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read amount sketch buckets of merchant " + merchantId, e);
+        }
+    }
+
+    @Override
+    public void insertIfAbsent(String merchantId, double relativeAccuracy, Map<String, Long> bucketCounts,
+                               LocalDateTime updatedAt) {
+        jdbcTemplate.update(INSERT_IF_ABSENT_SQL, merchantId, relativeAccuracy, sampleCount(bucketCounts),
+                toJson(bucketCounts), updatedAt);
+    }
+
+    private static long sampleCount(Map<String, Long> bucketCounts) {
+        return bucketCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private String toJson(Map<String, Long> bucketCounts) {
+        try {
+            return objectMapper.writeValueAsString(bucketCounts);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize amount sketch buckets", e);
+        }
+    }
+}
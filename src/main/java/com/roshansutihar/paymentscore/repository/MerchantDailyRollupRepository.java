@@ -0,0 +1,25 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.dtos.MerchantStatusTotalsDTO;
+import com.roshansutihar.paymentscore.entity.MerchantDailyRollup;
+import com.roshansutihar.paymentscore.entity.MerchantDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MerchantDailyRollupRepository extends JpaRepository<MerchantDailyRollup, MerchantDailyRollupId>,
+        MerchantDailyRollupUpdateRepository {
+
+    @Query("SELECT new com.roshansutihar.paymentscore.dtos.MerchantStatusTotalsDTO(r.transferStatus, " +
+            "SUM(r.transactionCount), SUM(r.grossAmount), SUM(r.commissionAmount), SUM(r.netAmount)) " +
+            "FROM MerchantDailyRollup r WHERE r.merchantId = :merchantId " +
+            "AND r.rollupDate BETWEEN :fromDate AND :toDate GROUP BY r.transferStatus")
+    List<MerchantStatusTotalsDTO> sumByStatus(@Param("merchantId") String merchantId,
+                                              @Param("fromDate") LocalDate fromDate,
+                                              @Param("toDate") LocalDate toDate);
+}
@@ -0,0 +1,10 @@
+package com.roshansutihar.paymentscore.repository;
+
+public interface MerchantDailyRollupUpdateRepository {
+
+    // Adds the merchant credit of a completed payment to the rollup row of its day and transfer status
+    void addCompletedPayment(String merchantId, Long paymentIntentId);
+
+    // Moves the payments of a settlement from one transfer status to another in their days' rollups
+    void moveSettlementPayments(String merchantId, Long settlementId, String fromStatus, String toStatus);
+}
@@ -0,0 +1,58 @@
+package com.roshansutihar.paymentscore.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Reads the values from the stored rows so rollups and raw edge reads bucket by the same created_at
+@RequiredArgsConstructor
+public class MerchantDailyRollupUpdateRepositoryImpl implements MerchantDailyRollupUpdateRepository {
+
+    private static final String ADD_ON_CONFLICT = "ON CONFLICT (merchant_id, rollup_date, transfer_status) DO UPDATE SET " +
+            "transaction_count = merchant_daily_rollups.transaction_count + EXCLUDED.transaction_count, " +
+            "gross_amount = merchant_daily_rollups.gross_amount + EXCLUDED.gross_amount, " +
+            "commission_amount = merchant_daily_rollups.commission_amount + EXCLUDED.commission_amount, " +
+            "net_amount = merchant_daily_rollups.net_amount + EXCLUDED.net_amount, " +
+            "updated_at = CURRENT_TIMESTAMP";
+
+    private static final String ADD_COMPLETED_PAYMENT_SQL = "INSERT INTO merchant_daily_rollups " +
+            "(merchant_id, rollup_date, transfer_status, transaction_count, gross_amount, commission_amount, " +
+            "net_amount, updated_at) " +
+            "SELECT ?, CAST(le.created_at AS DATE), COALESCE(rt.status, 'UNKNOWN'), 1, " +
+            "COALESCE(pi.amount, le.amount), COALESCE(tc.commission_amount, 0), le.amount, CURRENT_TIMESTAMP " +
+            "FROM ledger_entries le " +
+            "LEFT JOIN payment_intents pi ON pi.id = le.payment_intent_id " +
+            "LEFT JOIN transaction_commissions tc ON tc.payment_intent_id = le.payment_intent_id " +
+            "LEFT JOIN rail_transfers rt ON rt.payment_intent_id = le.payment_intent_id " +
+            "WHERE le.payment_intent_id = ? AND le.account_number = ? AND le.entry_type = 'CREDIT' " +
+            ADD_ON_CONFLICT;
+
+    // Settlement items snapshot the same values, bucketed by the ledger credit's created_at
+    private static final String MOVE_SETTLEMENT_PAYMENTS_SQL = "WITH moved AS (" +
+            "SELECT CAST(transaction_created_at AS DATE) AS rollup_date, COUNT(*) AS transaction_count, " +
+            "SUM(amount) AS gross_amount, SUM(commission_amount) AS commission_amount, SUM(net_amount) AS net_amount " +
+            "FROM merchant_settlement_items WHERE settlement_id = ? GROUP BY 1), " +
+            "released AS (" +
+            "UPDATE merchant_daily_rollups r SET transaction_count = r.transaction_count - m.transaction_count, " +
+            "gross_amount = r.gross_amount - m.gross_amount, " +
+            "commission_amount = r.commission_amount - m.commission_amount, " +
+            "net_amount = r.net_amount - m.net_amount, updated_at = CURRENT_TIMESTAMP " +
+            "FROM moved m WHERE r.merchant_id = ? AND r.rollup_date = m.rollup_date AND r.transfer_status = ?) " +
+            "INSERT INTO merchant_daily_rollups " +
+            "(merchant_id, rollup_date, transfer_status, transaction_count, gross_amount, commission_amount, " +
+            "net_amount, updated_at) " +
+            "SELECT ?, rollup_date, ?, transaction_count, gross_amount, commission_amount, net_amount, " +
+            "CURRENT_TIMESTAMP FROM moved " +
+            ADD_ON_CONFLICT;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addCompletedPayment(String merchantId, Long paymentIntentId) {
+        jdbcTemplate.update(ADD_COMPLETED_PAYMENT_SQL, merchantId, paymentIntentId, "MERCHANT_" + merchantId);
+    }
+
+    @Override
+    public void moveSettlementPayments(String merchantId, Long settlementId, String fromStatus, String toStatus) {
+        jdbcTemplate.update(MOVE_SETTLEMENT_PAYMENTS_SQL, settlementId, merchantId, fromStatus, merchantId, toStatus);
+    }
+}
@@ -0,0 +1,12 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.MerchantSettlementItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MerchantSettlementItemRepository extends JpaRepository<MerchantSettlementItem, Long> {
+    List<MerchantSettlementItem> findBySettlementIdOrderByTransactionCreatedAtAscIdAsc(Long settlementId);
+}
@@ -0,0 +1,27 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.MerchantSettlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface MerchantSettlementRepository extends JpaRepository<MerchantSettlement, Long> {
+    Optional<MerchantSettlement> findBySettlementReference(String settlementReference);
+
+    Optional<MerchantSettlement> findFirstByMerchantIdAndStatus(String merchantId, String status);
+
+    // Guarded transition: of concurrent callers only one sees a row updated
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MerchantSettlement s SET s.status = :toStatus, s.settledAt = :settledAt " +
+            "WHERE s.id = :id AND s.status = :fromStatus")
+    int updateStatus(@Param("id") Long id,
+                     @Param("fromStatus") String fromStatus,
+                     @Param("toStatus") String toStatus,
+                     @Param("settledAt") LocalDateTime settledAt);
+}
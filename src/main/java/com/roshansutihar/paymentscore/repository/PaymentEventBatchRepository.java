@@ -0,0 +1,11 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.PaymentEvent;
+
+import java.util.List;
+
+public interface PaymentEventBatchRepository {
+
+    // Inserts all events as a single JDBC batch using only their paymentIntentId foreign key
+    void insertAll(List<PaymentEvent> events);
+}
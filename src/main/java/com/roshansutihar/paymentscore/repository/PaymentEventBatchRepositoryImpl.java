@@ -0,0 +1,35 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.PaymentEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PaymentEventBatchRepositoryImpl implements PaymentEventBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO payment_events " +
+            "(payment_intent_id, event_type, payload, created_at) VALUES (?, ?, ?::jsonb, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<PaymentEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = events.stream()
+                .map(event -> new Object[]{
+                        event.getPaymentIntentId(),
+                        event.getEventType(),
+                        event.getPayload(),
+                        event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now()
+                })
+                .toList();
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+}
@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long> {
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long>, PaymentEventBatchRepository {
     List<PaymentEvent> findByPaymentIntentIdOrderByCreatedAtDesc(Long paymentIntentId);
 
     @Query("SELECT pe FROM PaymentEvent pe WHERE pe.paymentIntent.id = :paymentIntentId AND pe.createdAt >= :from AND pe.createdAt <= :to")
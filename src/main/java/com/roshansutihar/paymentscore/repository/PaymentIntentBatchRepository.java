@@ -0,0 +1,14 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.roshansutihar.paymentscore.entity.FraudCheck;
+import com.roshansutihar.paymentscore.entity.PaymentEvent;
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+
+import java.util.List;
+
+public interface PaymentIntentBatchRepository {
+
+    // Inserts intents together with their fraud checks and events in one statement and assigns the generated ids;
+    // checks and events are matched to their intent through getPaymentIntent()
+    void insertAllScored(List<PaymentIntent> paymentIntents, List<FraudCheck> fraudChecks, List<PaymentEvent> events);
+}
@@ -0,0 +1,128 @@
+package com.roshansutihar.paymentscore.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roshansutihar.paymentscore.entity.FraudCheck;
+import com.roshansutihar.paymentscore.entity.PaymentEvent;
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class PaymentIntentBatchRepositoryImpl implements PaymentIntentBatchRepository {
+
+    private static final String INSERT_PREFIX = "INSERT INTO payment_intents " +
+            "(merchant_id, terminal_id, session_id, amount, currency, status, expiry_time, " +
+            "transaction_ref, callback_url, created_at, updated_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FRAUD_CHECK_ROW = "(?, CAST(? AS INTEGER), ?, CAST(? AS JSONB), CAST(? AS TIMESTAMP))";
+    private static final String EVENT_ROW = "(?, ?, CAST(? AS JSONB), CAST(? AS TIMESTAMP))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void insertAllScored(List<PaymentIntent> paymentIntents, List<FraudCheck> fraudChecks, List<PaymentEvent> events) {
+        if (paymentIntents.isEmpty()) {
+            return;
+        }
+
+        List<Object> params = new ArrayList<>();
+        Map<String, PaymentIntent> bySessionId = bindIntents(paymentIntents, params);
+
+        StringBuilder sql = new StringBuilder("WITH intents AS (")
+                .append(INSERT_PREFIX)
+                .append(String.join(", ", Collections.nCopies(paymentIntents.size(), ROW_PLACEHOLDERS)))
+                .append(" RETURNING id, session_id)");
+
+        boolean hasChecks = !fraudChecks.isEmpty();
+        if (hasChecks) {
+            sql.append(", checks AS (INSERT INTO fraud_checks ")
+                    .append("(payment_intent_id, risk_score, risk_level, rules_triggered, created_at) ")
+                    .append("SELECT i.id, f.risk_score, f.risk_level, f.rules_triggered, f.created_at ")
+                    .append("FROM intents i JOIN (VALUES ")
+                    .append(String.join(", ", Collections.nCopies(fraudChecks.size(), FRAUD_CHECK_ROW)))
+                    .append(") AS f (session_id, risk_score, risk_level, rules_triggered, created_at) ")
+                    .append("ON f.session_id = i.session_id RETURNING id, payment_intent_id)");
+            for (FraudCheck fraudCheck : fraudChecks) {
+                params.add(fraudCheck.getPaymentIntent().getSessionId());
+                params.add(fraudCheck.getRiskScore());
+                params.add(fraudCheck.getRiskLevel() != null ? fraudCheck.getRiskLevel().name() : null);
+                params.add(toJson(fraudCheck.getRulesTriggered()));
+                params.add(fraudCheck.getCreatedAt());
+            }
+        }
+
+        if (!events.isEmpty()) {
+            sql.append(", events AS (INSERT INTO payment_events (payment_intent_id, event_type, payload, created_at) ")
+                    .append("SELECT i.id, e.event_type, e.payload, e.created_at ")
+                    .append("FROM intents i JOIN (VALUES ")
+                    .append(String.join(", ", Collections.nCopies(events.size(), EVENT_ROW)))
+                    .append(") AS e (session_id, event_type, payload, created_at) ")
+                    .append("ON e.session_id = i.session_id)");
+            for (PaymentEvent event : events) {
+                params.add(event.getPaymentIntent().getSessionId());
+                params.add(event.getEventType());
+                params.add(event.getPayload());
+                params.add(event.getCreatedAt());
+            }
+        }
+
+        sql.append(hasChecks
+                ? " SELECT i.id, i.session_id, c.id AS fraud_check_id FROM intents i LEFT JOIN checks c ON c.payment_intent_id = i.id"
+                : " SELECT i.id, i.session_id, NULL AS fraud_check_id FROM intents i");
+
+        // RETURNING order is not guaranteed, so ids are matched back by session id
+        Map<String, FraudCheck> checksBySessionId = new HashMap<>();
+        fraudChecks.forEach(fraudCheck -> checksBySessionId.put(fraudCheck.getPaymentIntent().getSessionId(), fraudCheck));
+
+        RowCallbackHandler assignIds = rs -> {
+            String sessionId = rs.getString("session_id");
+            long id = rs.getLong("id");
+            bySessionId.get(sessionId).setId(id);
+
+            long fraudCheckId = rs.getLong("fraud_check_id");
+            if (!rs.wasNull()) {
+                checksBySessionId.get(sessionId).setId(fraudCheckId);
+            }
+        };
+        jdbcTemplate.query(sql.toString(), assignIds, params.toArray());
+
+        events.forEach(event -> event.setPaymentIntentId(event.getPaymentIntent().getId()));
+    }
+
+    private static Map<String, PaymentIntent> bindIntents(List<PaymentIntent> paymentIntents, List<Object> params) {
+        Map<String, PaymentIntent> bySessionId = new HashMap<>();
+        for (PaymentIntent paymentIntent : paymentIntents) {
+            params.add(paymentIntent.getMerchantId());
+            params.add(paymentIntent.getTerminalId());
+            params.add(paymentIntent.getSessionId());
+            params.add(paymentIntent.getAmount());
+            params.add(paymentIntent.getCurrency());
+            params.add(paymentIntent.getStatus().name());
+            params.add(paymentIntent.getExpiryTime());
+            params.add(paymentIntent.getTransactionRef());
+            params.add(paymentIntent.getCallbackUrl());
+            params.add(paymentIntent.getCreatedAt());
+            params.add(paymentIntent.getUpdatedAt());
+            bySessionId.put(paymentIntent.getSessionId(), paymentIntent);
+        }
+        return bySessionId;
+    }
+
+    private String toJson(List<String> values) {
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize fraud rules", e);
+        }
+    }
+}
@@ -15,7 +15,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, Long> {
+public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, Long>, PaymentIntentBatchRepository {
     Optional<PaymentIntent> findBySessionId(String sessionId);
 
     Optional<PaymentIntent> findByTransactionRef(String transactionRef);
@@ -37,14 +37,44 @@ public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, Lo
     List<PaymentIntent> findByMerchantIdAndDate(@Param("merchantId") String merchantId,
                                                 @Param("date") LocalDate date);
 
-    @Query("SELECT p FROM PaymentIntent p WHERE p.merchantId = :merchantId AND p.amount = :amount AND p.createdAt >= :since AND p.status = 'COMPLETED'")
-    List<PaymentIntent> findRecentSimilarTransactions(@Param("merchantId") String merchantId,
-                                                      @Param("amount") BigDecimal amount,
-                                                      @Param("since") LocalDateTime since);
+    boolean existsByMerchantIdAndAmountAndStatusAndCreatedAtGreaterThanEqual(String merchantId,
+                                                                             BigDecimal amount,
+                                                                             PaymentStatus status,
+                                                                             LocalDateTime since);
+
+    boolean existsByMerchantIdAndTerminalIdAndAmountAndStatusAndCreatedAtGreaterThanEqual(String merchantId,
+                                                                                          String terminalId,
+                                                                                          BigDecimal amount,
+                                                                                          PaymentStatus status,
+                                                                                          LocalDateTime since);
+
+    @Query("SELECT p.merchantId, p.terminalId, p.amount, p.createdAt FROM PaymentIntent p " +
+            "WHERE p.status = 'COMPLETED' AND p.createdAt >= :since")
+    List<Object[]> findCompletedPaymentKeysSince(@Param("since") LocalDateTime since);
 
     @Query("SELECT COUNT(p) FROM PaymentIntent p WHERE p.merchantId = :merchantId AND p.createdAt >= :since")
     Long countRecentTransactionsByMerchant(@Param("merchantId") String merchantId,
                                            @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT merchant_id, CAST(EXTRACT(EPOCH FROM created_at) AS BIGINT) / :bucketSeconds AS bucket, COUNT(*) " +
+            "FROM payment_intents WHERE created_at >= :since GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> countCreatedByMerchantAndBucket(@Param("since") LocalDateTime since,
+                                                   @Param("bucketSeconds") long bucketSeconds);
+
+    @Query(value = "SELECT merchant_id, CAST(CEIL(LN(amount) / :lnGamma) AS INTEGER) AS bucket, COUNT(*) " +
+            "FROM payment_intents WHERE status = 'COMPLETED' AND amount > 0 AND created_at >= :since " +
+            "GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> countCompletedByMerchantAndAmountBucket(@Param("since") LocalDateTime since,
+                                                           @Param("lnGamma") double lnGamma);
+
+    // Same buckets as countCompletedByMerchantAndAmountBucket, for one merchant over [since, until)
+    @Query(value = "SELECT CAST(CEIL(LN(amount) / :lnGamma) AS INTEGER) AS bucket, COUNT(*) " +
+            "FROM payment_intents WHERE merchant_id = :merchantId AND status = 'COMPLETED' AND amount > 0 " +
+            "AND created_at >= :since AND created_at < :until GROUP BY 1", nativeQuery = true)
+    List<Object[]> countCompletedByAmountBucket(@Param("merchantId") String merchantId,
+                                                @Param("since") LocalDateTime since,
+                                                @Param("until") LocalDateTime until,
+                                                @Param("lnGamma") double lnGamma);
 }
 
 
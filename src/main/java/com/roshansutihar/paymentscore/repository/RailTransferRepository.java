@@ -1,10 +1,15 @@
 package com.roshansutihar.paymentscore.repository;
 
+import com.roshansutihar.paymentscore.dtos.SettlementCandidateDTO;
 import com.roshansutihar.paymentscore.entity.RailTransfer;
 import com.roshansutihar.paymentscore.enums.TransferStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +21,34 @@ public interface RailTransferRepository extends JpaRepository<RailTransfer, Long
 
     List<RailTransfer> findByStatus(TransferStatus status);
 
-    List<RailTransfer> findByPaymentIntentIdIn(List<Long> paymentIntentIds);
     Optional<RailTransfer> findFirstByPaymentIntentId(Long paymentIntentId);
+
+    String UNSETTLED_SELECT = "SELECT new com.roshansutihar.paymentscore.dtos.SettlementCandidateDTO(rt.id, pi.id, " +
+            "pi.sessionId, pi.transactionRef, pi.amount, COALESCE(tc.commissionAmount, 0), le.amount, pi.currency, " +
+            "CAST(rt.status AS String), le.createdAt, rt.settlementDate) " +
+            "FROM RailTransfer rt JOIN rt.paymentIntent pi " +
+            "JOIN LedgerEntry le ON le.paymentIntentId = pi.id AND le.accountNumber = :accountNumber " +
+            "AND le.entryType = 'CREDIT' " +
+            "LEFT JOIN TransactionCommission tc ON tc.paymentIntentId = pi.id " +
+            "WHERE pi.merchantId = :merchantId AND rt.status = :status " +
+            "AND NOT EXISTS (SELECT 1 FROM MerchantSettlementItem i WHERE i.railTransferId = rt.id) ";
+
+    @Query(UNSETTLED_SELECT + "AND le.createdAt BETWEEN :from AND :to ORDER BY le.createdAt, le.id")
+    List<SettlementCandidateDTO> findUnsettled(@Param("merchantId") String merchantId,
+                                               @Param("accountNumber") String accountNumber,
+                                               @Param("status") TransferStatus status,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    // No lower bound: transfers already claimed by a settlement are excluded by the NOT EXISTS
+    @Query(UNSETTLED_SELECT + "AND le.createdAt <= :to ORDER BY le.createdAt, le.id")
+    List<SettlementCandidateDTO> findUnsettledThrough(@Param("merchantId") String merchantId,
+                                                      @Param("accountNumber") String accountNumber,
+                                                      @Param("status") TransferStatus status,
+                                                      @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("UPDATE RailTransfer rt SET rt.status = :status, rt.updatedAt = CURRENT_TIMESTAMP WHERE rt.id IN " +
+            "(SELECT i.railTransferId FROM MerchantSettlementItem i WHERE i.settlementId = :settlementId)")
+    int updateStatusBySettlement(@Param("settlementId") Long settlementId, @Param("status") TransferStatus status);
 }
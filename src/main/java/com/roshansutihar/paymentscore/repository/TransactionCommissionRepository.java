@@ -8,7 +8,6 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,6 +20,4 @@ public interface TransactionCommissionRepository extends JpaRepository<Transacti
     BigDecimal findTotalCommissionByMerchantAndDateRange(@Param("merchantId") String merchantId,
                                                          @Param("startDate") LocalDateTime startDate,
                                                          @Param("endDate") LocalDateTime endDate);
-
-    List<TransactionCommission> findByPaymentIntentIdIn(List<Long> paymentIntentIds);
 }
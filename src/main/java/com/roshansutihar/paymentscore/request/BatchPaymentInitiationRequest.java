@@ -0,0 +1,18 @@
+package com.roshansutihar.paymentscore.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentInitiationRequest {
+    @NotEmpty(message = "Payments cannot be empty")
+    private List<PaymentInitiationRequest> payments;
+}
@@ -2,36 +2,33 @@ package com.roshansutihar.paymentscore.resource;
 
 
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.roshansutihar.paymentscore.entity.FraudCheck;
 import com.roshansutihar.paymentscore.entity.PaymentIntent;
 import com.roshansutihar.paymentscore.enums.PaymentStatus;
+import com.roshansutihar.paymentscore.request.BatchPaymentInitiationRequest;
 import com.roshansutihar.paymentscore.request.PaymentCancellationRequest;
 import com.roshansutihar.paymentscore.request.PaymentCompletionRequest;
 import com.roshansutihar.paymentscore.request.PaymentInitiationRequest;
 import com.roshansutihar.paymentscore.response.*;
+import com.roshansutihar.paymentscore.security.MerchantSignatureVerifier;
+import com.roshansutihar.paymentscore.security.RawBodyCaptureFilter;
 import com.roshansutihar.paymentscore.service.FraudDetectionService;
 import com.roshansutihar.paymentscore.service.MerchantService;
 import com.roshansutihar.paymentscore.service.PaymentOrchestrationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -53,52 +50,40 @@ public class PaymentController {
     private final MerchantService merchantService;
 
     private final FraudDetectionService fraudDetectionService;
+    private final MerchantSignatureVerifier signatureVerifier;
+
+    @Value("${app.payments.batch.max-size:50}")
+    private int maxBatchSize;
 
     @PostMapping("/initiate")
     public ResponseEntity<PaymentInitiationResponse> initiatePayment(
             @Valid @RequestBody PaymentInitiationRequest request,
             @RequestHeader("X-Merchant-ID") String merchantId,
-            @RequestHeader("X-Signature") String signature) {
+            @RequestHeader("X-Signature") String signature,
+            HttpServletRequest httpRequest) {
 
         log.info("Received payment initiation request from merchant: {}, terminal: {}",
                 merchantId, request.getTerminalId());
 
         try {
 
-            validateSignature(merchantId, signature, request);
+            validateSignature(merchantId, signature, httpRequest);
 
-            if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-                throw new RuntimeException("Invalid amount: " + request.getAmount());
-            }
+            PaymentOrchestrationService.InitiationResult result =
+                    paymentOrchestrationService.initiatePayment(merchantId, request);
 
-            if (request.getTransactionRef() == null || request.getTransactionRef().trim().isEmpty()) {
-                throw new RuntimeException("Transaction reference is required");
+            if (result.getError() != null) {
+                throw new RuntimeException(result.getError());
             }
 
-            PaymentIntent paymentIntent = paymentOrchestrationService.createPaymentIntent(
-                    merchantId,
-                    request.getTerminalId(),
-                    request.getAmount(),
-                    request.getTransactionRef(),
-                    request.getCallbackUrl()
-            );
-
-
-            FraudCheck fraudCheck = fraudDetectionService.performFraudCheck(paymentIntent);
-
+            PaymentIntent paymentIntent = result.getPaymentIntent();
 
-            if (fraudDetectionService.shouldBlockTransaction(fraudCheck)) {
+            if (result.isBlocked()) {
+                FraudCheck fraudCheck = result.getFraudCheck();
                 log.warn("Payment blocked by fraud check. Session: {}, Risk: {}, Score: {}, Rules: {}",
                         paymentIntent.getSessionId(), fraudCheck.getRiskLevel(),
                         fraudCheck.getRiskScore(), fraudCheck.getRulesTriggered());
 
-
-                paymentOrchestrationService.updatePaymentStatus(
-                        paymentIntent.getSessionId(),
-                        PaymentStatus.FAILED,
-                        "Transaction flagged by fraud system"
-                );
-
                 throw new RuntimeException("Transaction declined due to security reasons. Please contact support.");
             }
 
@@ -129,6 +114,93 @@ public class PaymentController {
     }
 
 
+    @PostMapping("/initiate/batch")
+    public ResponseEntity<BatchPaymentInitiationResponse> initiatePaymentBatch(
+            @Valid @RequestBody BatchPaymentInitiationRequest request,
+            @RequestHeader("X-Merchant-ID") String merchantId,
+            @RequestHeader("X-Signature") String signature,
+            HttpServletRequest httpRequest) {
+
+        int batchSize = request.getPayments() != null ? request.getPayments().size() : 0;
+        log.info("Received batch payment initiation request from merchant: {}, size: {}", merchantId, batchSize);
+
+        try {
+
+            validateSignature(merchantId, signature, httpRequest);
+
+            if (batchSize == 0) {
+                throw new RuntimeException("Batch must contain at least one payment");
+            }
+
+            if (batchSize > maxBatchSize) {
+                throw new RuntimeException("Batch size " + batchSize + " exceeds maximum of " + maxBatchSize);
+            }
+
+            List<PaymentOrchestrationService.InitiationResult> results =
+                    paymentOrchestrationService.createPaymentIntents(merchantId, request.getPayments());
+
+            List<PaymentInitiationResponse> itemResponses = new ArrayList<>(results.size());
+            int successCount = 0;
+            for (PaymentOrchestrationService.InitiationResult result : results) {
+                PaymentIntent paymentIntent = result.getPaymentIntent();
+
+                if (result.getError() != null) {
+                    itemResponses.add(PaymentInitiationResponse.builder()
+                            .success(false)
+                            .message(result.getError())
+                            .build());
+                } else if (result.isBlocked()) {
+                    FraudCheck fraudCheck = result.getFraudCheck();
+                    log.warn("Payment blocked by fraud check. Session: {}, Risk: {}, Score: {}, Rules: {}",
+                            paymentIntent.getSessionId(), fraudCheck.getRiskLevel(),
+                            fraudCheck.getRiskScore(), fraudCheck.getRulesTriggered());
+
+                    itemResponses.add(PaymentInitiationResponse.builder()
+                            .success(false)
+                            .sessionId(paymentIntent.getSessionId())
+                            .message("Transaction declined due to security reasons. Please contact support.")
+                            .build());
+                } else {
+                    successCount++;
+                    itemResponses.add(PaymentInitiationResponse.builder()
+                            .success(true)
+                            .sessionId(paymentIntent.getSessionId())
+                            .qrData(generateQRData(paymentIntent))
+                            .expiryTime(paymentIntent.getExpiryTime())
+                            .message("Payment initiated successfully")
+                            .build());
+                }
+            }
+
+            BatchPaymentInitiationResponse response = BatchPaymentInitiationResponse.builder()
+                    .success(true)
+                    .merchantId(merchantId)
+                    .totalCount(results.size())
+                    .successCount(successCount)
+                    .failureCount(results.size() - successCount)
+                    .results(itemResponses)
+                    .message("Batch processed")
+                    .build();
+
+            log.info("Batch payment initiation processed for merchant: {}, succeeded: {}/{}",
+                    merchantId, successCount, results.size());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Batch payment initiation failed for merchant: {}", merchantId, e);
+
+            BatchPaymentInitiationResponse response = BatchPaymentInitiationResponse.builder()
+                    .success(false)
+                    .merchantId(merchantId)
+                    .message(e.getMessage())
+                    .build();
+
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+
     @GetMapping("/{sessionId}/fraud-check")
     public ResponseEntity<FraudCheckResponse> getFraudCheckStatus(@PathVariable String sessionId) {
         try {
@@ -214,6 +286,10 @@ public class PaymentController {
                     sourceRoutingNumber
             );
 
+            if (paymentIntent.getStatus() != PaymentStatus.COMPLETED) {
+                throw new RuntimeException("Transaction declined due to security reasons. Please contact support.");
+            }
+
             PaymentCompletionResponse response = PaymentCompletionResponse.builder()
                     .success(true)
                     .transactionId(paymentIntent.getId().toString())
@@ -300,40 +376,11 @@ public class PaymentController {
         }
     }
 
-    private void validateSignature(String merchantId, String signature, Object request) {
+    private void validateSignature(String merchantId, String signature, HttpServletRequest httpRequest) {
         try {
-            String secretKey = merchantService.getMerchantSecret(merchantId);
-            if (secretKey == null) {
-                throw new RuntimeException("Merchant not found or invalid");
-            }
-
-
-            ObjectMapper objectMapper = new ObjectMapper();
-
-
-            objectMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
-            objectMapper.configure(SerializationFeature.INDENT_OUTPUT, false);
-            objectMapper.setSerializationInclusion(JsonInclude.Include.ALWAYS);
-
-            String requestBody = objectMapper.writeValueAsString(request);
-
-            String dataToSign = merchantId + requestBody;
-
-
-            Mac mac = Mac.getInstance("HmacSHA256");
-            byte[] decodedKeyBytes = Base64.getDecoder().decode(secretKey);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(decodedKeyBytes, "HmacSHA256");
-            mac.init(secretKeySpec);
-            byte[] hash = mac.doFinal(dataToSign.getBytes(StandardCharsets.UTF_8));
-            String expectedSignature = Base64.getEncoder().encodeToString(hash);
-
-
-            if (!expectedSignature.equals(signature)) {
-                throw new RuntimeException("Invalid signature - expected: " + expectedSignature + " but got: " + signature);
-            }
-
+            signatureVerifier.verify(merchantId, signature, RawBodyCaptureFilter.getRawBody(httpRequest));
         } catch (Exception e) {
-            log.error("Signature validation error", e);
+            log.warn("Signature validation failed for merchant: {}: {}", merchantId, e.getMessage());
             throw new RuntimeException("Signature validation failed: " + e.getMessage());
         }
     }
@@ -1,18 +1,16 @@
 package com.roshansutihar.paymentscore.resource;
 
-import com.roshansutihar.paymentscore.dtos.MerchantTransactionDTO;
 import com.roshansutihar.paymentscore.dtos.SettlementResponse;
-import com.roshansutihar.paymentscore.dtos.SettlementTransaction;
+import com.roshansutihar.paymentscore.entity.MerchantSettlement;
 import com.roshansutihar.paymentscore.request.SettlementMarkRequest;
 import com.roshansutihar.paymentscore.response.BatchSettlementResponse;
-import com.roshansutihar.paymentscore.response.MerchantTransactionsResponse;
 import com.roshansutihar.paymentscore.response.SettlementMarkResponse;
-import com.roshansutihar.paymentscore.service.MerchantService;
-import com.roshansutihar.paymentscore.service.TransactionQueryService;
+import com.roshansutihar.paymentscore.service.SettlementService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -20,9 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/settlement")
@@ -31,8 +27,7 @@ import java.util.stream.Collectors;
 @Validated
 public class SettlementController {
 
-    private final TransactionQueryService transactionQueryService;
-    private final MerchantService merchantService;
+    private final SettlementService settlementService;
 
     @GetMapping("/merchant/{merchantId}/pending")
     public ResponseEntity<SettlementResponse> getPendingSettlement(
@@ -43,25 +38,12 @@ public class SettlementController {
         log.info("Fetching pending settlement for merchant: {}", merchantId);
 
         try {
-
-            if (from == null) {
-                from = getLastSettlementDate(merchantId);
-            }
-            if (to == null) {
-                to = LocalDateTime.now();
-            }
-
-
-            MerchantTransactionsResponse merchantTransactions = transactionQueryService
-                    .getMerchantTransactions(merchantId, from, to, "ACKNOWLEDGED");
-
-            if (merchantTransactions.getTransactions().isEmpty()) {
-                return ResponseEntity.noContent().build();
-            }
-
-            SettlementResponse settlementResponse = buildSettlementResponse(merchantId, merchantTransactions);
-            return ResponseEntity.ok(settlementResponse);
-
+            return settlementService.getOrCreatePendingSettlement(merchantId, from, to)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.noContent().build());
+        } catch (IllegalStateException e) {
+            log.warn("Pending settlement conflict for merchant {}: {}", merchantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Failed to fetch pending settlement for merchant: {}", merchantId, e);
             return ResponseEntity.internalServerError().build();
@@ -77,11 +59,8 @@ public class SettlementController {
         log.info("Fetching batch settlement for merchant: {} from {} to {}", merchantId, from, to);
 
         try {
-
-            MerchantTransactionsResponse merchantTransactions = transactionQueryService
-                    .getMerchantTransactions(merchantId, from, to, "ACKNOWLEDGED");
-
-            SettlementResponse settlement = buildSettlementResponse(merchantId, merchantTransactions);
+            SettlementResponse settlement = settlementService.getOrCreatePendingSettlement(merchantId, from, to)
+                    .orElseGet(() -> emptySettlement(merchantId, from, to));
 
             BatchSettlementResponse response = BatchSettlementResponse.builder()
                     .merchantId(merchantId)
@@ -90,6 +69,9 @@ public class SettlementController {
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalStateException e) {
+            log.warn("Pending settlement conflict for merchant {}: {}", merchantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Failed to fetch batch settlement for merchant: {}", merchantId, e);
             return ResponseEntity.internalServerError().build();
@@ -102,16 +84,12 @@ public class SettlementController {
         LocalDateTime endOfDay = LocalDateTime.now().with(LocalTime.MAX);
 
         try {
-            MerchantTransactionsResponse merchantTransactions = transactionQueryService
-                    .getMerchantTransactions(merchantId, startOfDay, endOfDay, "ACKNOWLEDGED");
-
-            if (merchantTransactions.getTransactions().isEmpty()) {
-                return ResponseEntity.noContent().build();
-            }
-
-            SettlementResponse settlementResponse = buildSettlementResponse(merchantId, merchantTransactions);
-            return ResponseEntity.ok(settlementResponse);
-
+            return settlementService.getOrCreatePendingSettlement(merchantId, startOfDay, endOfDay)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.noContent().build());
+        } catch (IllegalStateException e) {
+            log.warn("Pending settlement conflict for merchant {}: {}", merchantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Failed to fetch today's pending settlement for merchant: {}", merchantId, e);
             return ResponseEntity.internalServerError().build();
@@ -125,19 +103,21 @@ public class SettlementController {
         log.info("Marking settlement as processed: {}", request.getSettlementId());
 
         try {
+            MerchantSettlement settlement = settlementService.markSettled(request);
+
             SettlementMarkResponse response = SettlementMarkResponse.builder()
                     .success(true)
-                    .settlementId(request.getSettlementId())
+                    .settlementId(settlement.getSettlementReference())
                     .message("Settlement marked as processed successfully")
-                    .processedAt(LocalDateTime.now())
-                    .transactionCount(request.getTransactionRefs().size())
-                    .totalAmount(BigDecimal.valueOf(request.getTotalAmount()))
-                    .totalNetAmount(BigDecimal.valueOf(request.getTotalNetAmount()))
-                    .totalFees(BigDecimal.valueOf(request.getTotalFees()))
+                    .processedAt(settlement.getSettledAt())
+                    .transactionCount(settlement.getTransactionCount())
+                    .totalAmount(settlement.getTotalAmount())
+                    .totalNetAmount(settlement.getNetAmount())
+                    .totalFees(settlement.getCommissionAmount())
                     .build();
 
             log.info("Settlement {} marked as processed with {} transactions",
-                    request.getSettlementId(), request.getTransactionRefs().size());
+                    settlement.getSettlementReference(), settlement.getTransactionCount());
 
             return ResponseEntity.ok(response);
 
@@ -153,76 +133,18 @@ public class SettlementController {
         }
     }
 
-    private SettlementResponse buildSettlementResponse(String merchantId,
-                                                       MerchantTransactionsResponse merchantTransactions) {
-
-        List<SettlementTransaction> settlementTransactions = merchantTransactions.getTransactions().stream()
-                .map(this::convertToSettlementTransaction)
-                .collect(Collectors.toList());
-
-
-        BigDecimal totalAmount = settlementTransactions.stream()
-                .map(SettlementTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalFees = settlementTransactions.stream()
-                .map(SettlementTransaction::getFees)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalNetAmount = settlementTransactions.stream()
-                .map(SettlementTransaction::getNetAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        String settlementId = generateSettlementId(merchantId);
-
-
-        LocalDateTime periodFrom = merchantTransactions.getTransactions().stream()
-                .map(MerchantTransactionDTO::getCreatedAt)
-                .min(LocalDateTime::compareTo)
-                .orElse(LocalDateTime.now());
-
-        LocalDateTime periodTo = merchantTransactions.getTransactions().stream()
-                .map(MerchantTransactionDTO::getCreatedAt)
-                .max(LocalDateTime::compareTo)
-                .orElse(LocalDateTime.now());
-
+    private SettlementResponse emptySettlement(String merchantId, LocalDateTime from, LocalDateTime to) {
         return SettlementResponse.builder()
-                .settlementId(settlementId)
                 .merchantId(merchantId)
                 .generatedAt(LocalDateTime.now())
-                .periodFrom(periodFrom)
-                .periodTo(periodTo)
-                .transactions(settlementTransactions)
-                .totalAmount(totalAmount)
-                .totalFees(totalFees)
-                .totalNetAmount(totalNetAmount)
-                .transactionCount(settlementTransactions.size())
-                .status("PENDING_SETTLEMENT")
+                .periodFrom(from)
+                .periodTo(to)
+                .transactions(List.of())
+                .transactionCount(0)
+                .totalAmount(BigDecimal.ZERO)
+                .totalFees(BigDecimal.ZERO)
+                .totalNetAmount(BigDecimal.ZERO)
+                .status("NO_PENDING_TRANSACTIONS")
                 .build();
     }
-
-    private SettlementTransaction convertToSettlementTransaction(MerchantTransactionDTO transaction) {
-        return SettlementTransaction.builder()
-                .transactionRef(transaction.getTransactionRef())
-                .sessionId(transaction.getSessionId())
-                .amount(transaction.getAmount())
-                .fees(transaction.getCommissionAmount())
-                .netAmount(transaction.getNetAmount())
-                .currency(transaction.getCurrency())
-                .status(transaction.getStatus())
-                .createdAt(transaction.getCreatedAt())
-                .completedAt(transaction.getCompletedAt())
-                .settlementDate(transaction.getSettlementDate())
-                .build();
-    }
-
-    private String generateSettlementId(String merchantId) {
-        return "SETTLE_" + merchantId + "_" +
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-    }
-
-    private LocalDateTime getLastSettlementDate(String merchantId) {
-
-        return LocalDateTime.now().with(LocalTime.MIN);
-    }
 }
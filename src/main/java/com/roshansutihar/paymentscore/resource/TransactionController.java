@@ -1,16 +1,22 @@
 package com.roshansutihar.paymentscore.resource;
 
 import com.roshansutihar.paymentscore.dtos.MerchantTransactionDetailDTO;
+import com.roshansutihar.paymentscore.enums.TransactionExportFormat;
 import com.roshansutihar.paymentscore.response.MerchantTransactionsResponse;
 import com.roshansutihar.paymentscore.response.TransactionSummaryResponse;
+import com.roshansutihar.paymentscore.service.TransactionExportService;
 import com.roshansutihar.paymentscore.service.TransactionQueryService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
@@ -22,28 +28,76 @@ import java.time.LocalTime;
 public class TransactionController {
 
     private final TransactionQueryService transactionQueryService;
+    private final TransactionExportService transactionExportService;
 
     @GetMapping("/merchant/{merchantId}")
     public ResponseEntity<MerchantTransactionsResponse> getMerchantTransactions(
             @PathVariable String merchantId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
 
         log.info("Fetching transactions for merchant: {} from {} to {}", merchantId, from, to);
 
         try {
             MerchantTransactionsResponse response = transactionQueryService
-                    .getMerchantTransactions(merchantId, from, to, status);
+                    .getMerchantTransactions(merchantId, from, to, status, cursor, limit);
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected transaction page request for merchant: {}: {}", merchantId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Failed to fetch transactions for merchant: {}", merchantId, e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @GetMapping("/merchant/{merchantId}/export")
+    public void exportMerchantTransactions(
+            @PathVariable String merchantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Exporting transactions for merchant: {} from {} to {} as {}", merchantId, from, to, format);
+
+        TransactionExportFormat exportFormat;
+        try {
+            exportFormat = TransactionExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return;
+        }
+
+        String filename = "transactions-" + merchantId + "-" + from.toLocalDate() + "-" + to.toLocalDate() + "."
+                + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(filename).build().toString());
+
+        try {
+            transactionExportService.export(merchantId, from, to, status, exportFormat, gzip,
+                    response.getOutputStream());
+        } catch (IOException e) {
+            // Usually the client went away; the response is already committed
+            log.warn("Transaction export for merchant: {} aborted: {}", merchantId, e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to export transactions for merchant: {}", merchantId, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
     @GetMapping("/merchant/{merchantId}/summary")
     public ResponseEntity<TransactionSummaryResponse> getTransactionSummary(
             @PathVariable String merchantId,
@@ -66,17 +120,22 @@ public class TransactionController {
 
     @GetMapping("/merchant/{merchantId}/today")
     public ResponseEntity<MerchantTransactionsResponse> getTodayTransactions(
-            @PathVariable String merchantId) {
+            @PathVariable String merchantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
 
         LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
         LocalDateTime endOfDay = LocalDateTime.now().with(LocalTime.MAX);
 
         try {
             MerchantTransactionsResponse response = transactionQueryService
-                    .getMerchantTransactions(merchantId, startOfDay, endOfDay, null);
+                    .getMerchantTransactions(merchantId, startOfDay, endOfDay, null, cursor, limit);
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected transaction page request for merchant: {}: {}", merchantId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Failed to fetch today's transactions for merchant: {}", merchantId, e);
             return ResponseEntity.internalServerError().build();
@@ -0,0 +1,18 @@
+package com.roshansutihar.paymentscore.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BatchPaymentInitiationResponse {
+    private boolean success;
+    private String merchantId;
+    private Integer totalCount;
+    private Integer successCount;
+    private Integer failureCount;
+    private List<PaymentInitiationResponse> results;
+    private String message;
+}
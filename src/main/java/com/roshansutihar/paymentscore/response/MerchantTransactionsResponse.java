@@ -13,6 +13,9 @@ import java.util.List;
 public class MerchantTransactionsResponse {
     private String merchantId;
     private List<MerchantTransactionDTO> transactions;
+    // Null on the last page
+    private String nextCursor;
+    // Totals for the whole range, only on the first page
     private Integer totalCount;
     @Getter
     private BigDecimal totalAmount;
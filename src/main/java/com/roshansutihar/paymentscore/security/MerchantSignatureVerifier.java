@@ -0,0 +1,129 @@
+package com.roshansutihar.paymentscore.security;
+
+import com.roshansutihar.paymentscore.entity.MerchantAccount;
+import com.roshansutihar.paymentscore.repository.MerchantAccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies the X-Signature header as Base64(HMAC-SHA256(secret, merchantId + rawBody)).
+ * Decoded keys and initialised {@link Mac} instances are kept per merchant so the hot
+ * path does no provider lookup, no Base64 decoding of the secret and no key setup.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MerchantSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_POOLED_MACS_PER_MERCHANT = 32;
+
+    private final MerchantAccountRepository merchantAccountRepository;
+
+    private final Map<String, MerchantKey> keys = new ConcurrentHashMap<>();
+
+    // Bounds how long another node's secret rotation can go unnoticed
+    @Value("${app.signature.key-cache-ttl-seconds:300}")
+    private long keyCacheTtlSeconds;
+
+    public void verify(String merchantId, String signature, byte[] rawBody) {
+        if (signature == null || signature.isBlank()) {
+            throw new RuntimeException("Missing signature");
+        }
+
+        byte[] providedSignature;
+        try {
+            providedSignature = Base64.getDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Malformed signature");
+        }
+
+        MerchantKey key = resolveKey(merchantId);
+        Mac mac = key.borrow();
+        byte[] expectedSignature;
+        try {
+            mac.update(merchantId.getBytes(StandardCharsets.UTF_8));
+            expectedSignature = mac.doFinal(rawBody);
+        } finally {
+            key.release(mac);
+        }
+
+        if (!MessageDigest.isEqual(expectedSignature, providedSignature)) {
+            throw new RuntimeException("Invalid signature");
+        }
+    }
+
+    public void invalidate(String merchantId) {
+        if (keys.remove(merchantId) != null) {
+            log.info("Invalidated cached signing key for merchant: {}", merchantId);
+        }
+    }
+
+    private MerchantKey resolveKey(String merchantId) {
+        MerchantKey key = keys.get(merchantId);
+        if (key != null && !key.isExpired(keyCacheTtlSeconds)) {
+            return key;
+        }
+
+        MerchantAccount merchant = merchantAccountRepository.findByMerchantId(merchantId)
+                .orElseThrow(() -> new RuntimeException("Merchant not found or invalid"));
+
+        MerchantKey loaded = new MerchantKey(
+                new SecretKeySpec(Base64.getDecoder().decode(merchant.getSecretKey()), ALGORITHM));
+        keys.put(merchantId, loaded);
+        return loaded;
+    }
+
+    private static final class MerchantKey {
+        private final SecretKeySpec keySpec;
+        private final long loadedAtMillis = System.currentTimeMillis();
+        private final Queue<Mac> pool = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pooled = new AtomicInteger();
+
+        private MerchantKey(SecretKeySpec keySpec) {
+            this.keySpec = keySpec;
+        }
+
+        private boolean isExpired(long ttlSeconds) {
+            return System.currentTimeMillis() - loadedAtMillis > ttlSeconds * 1000;
+        }
+
+        private Mac borrow() {
+            Mac mac = pool.poll();
+            if (mac != null) {
+                pooled.decrementAndGet();
+                return mac;
+            }
+            try {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException("Unable to initialise " + ALGORITHM + ": " + e.getMessage());
+            }
+        }
+
+        private void release(Mac mac) {
+            mac.reset();
+            if (pooled.incrementAndGet() <= MAX_POOLED_MACS_PER_MERCHANT) {
+                pool.offer(mac);
+            } else {
+                pooled.decrementAndGet();
+            }
+        }
+    }
+}
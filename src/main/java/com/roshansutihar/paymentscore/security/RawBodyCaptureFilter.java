@@ -0,0 +1,44 @@
+package com.roshansutihar.paymentscore.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Buffers the raw body of signed endpoints so the HMAC can be checked over the
+ * exact bytes the merchant sent, instead of a re-serialized copy of the DTO.
+ */
+@Component
+public class RawBodyCaptureFilter extends OncePerRequestFilter {
+
+    public static final String RAW_BODY_ATTRIBUTE = RawBodyCaptureFilter.class.getName() + ".RAW_BODY";
+
+    private static final String SIGNED_PATH_PREFIX = "/api/v1/payments/initiate";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod())
+                || !request.getRequestURI().startsWith(SIGNED_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+        cachedRequest.setAttribute(RAW_BODY_ATTRIBUTE, cachedRequest.getBody());
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    public static byte[] getRawBody(HttpServletRequest request) {
+        Object body = request.getAttribute(RAW_BODY_ATTRIBUTE);
+        if (!(body instanceof byte[] bytes)) {
+            throw new RuntimeException("Request body was not captured for signature verification");
+        }
+        return bytes;
+    }
+}
@@ -4,15 +4,23 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.roshansutihar.paymentscore.entity.FraudCheck;
 import com.roshansutihar.paymentscore.entity.PaymentIntent;
 import com.roshansutihar.paymentscore.enums.RiskLevel;
+import com.roshansutihar.paymentscore.fraud.DuplicatePaymentDetector;
+import com.roshansutihar.paymentscore.fraud.FraudContext;
+import com.roshansutihar.paymentscore.fraud.FraudEvaluation;
+import com.roshansutihar.paymentscore.fraud.FraudMetrics;
+import com.roshansutihar.paymentscore.fraud.FraudRuleEngine;
+import com.roshansutihar.paymentscore.fraud.MerchantAmountProfiles;
+import com.roshansutihar.paymentscore.fraud.MerchantVelocityTracker;
+import com.roshansutihar.paymentscore.fraud.PaymentVelocitySketches;
+import com.roshansutihar.paymentscore.fraud.ShadowFraudScorer;
 import com.roshansutihar.paymentscore.repository.FraudCheckRepository;
-import com.roshansutihar.paymentscore.repository.PaymentIntentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,113 +32,101 @@ import java.util.Optional;
 public class FraudDetectionService {
 
     private final FraudCheckRepository fraudCheckRepository;
-    private final PaymentIntentRepository paymentIntentRepository;
     private final ObjectMapper objectMapper;
-
-    // Configurable rules
-    @Value("${app.fraud.velocity.threshold:10}")
-    private int velocityThreshold;
-
-    @Value("${app.fraud.amount.threshold:5000}")
-    private BigDecimal amountThreshold;
+    private final FraudRuleEngine fraudRuleEngine;
+    private final FraudMetrics fraudMetrics;
+    private final MerchantVelocityTracker velocityTracker;
+    private final DuplicatePaymentDetector duplicateDetector;
+    private final MerchantAmountProfiles amountProfiles;
+    private final PaymentVelocitySketches velocitySketches;
+    private final ShadowFraudScorer shadowFraudScorer;
 
     @Value("${app.fraud.block.score:70}")
     private int blockRiskScore;
 
-    @Transactional
-    public FraudCheck performFraudCheck(PaymentIntent paymentIntent) {
-        log.info("Performing fraud check for payment: {}", paymentIntent.getSessionId());
-
-        FraudCheck fraudCheck = new FraudCheck();
-        fraudCheck.setPaymentIntent(paymentIntent);
-
-        int riskScore = 0;
-        List<String> triggeredRules = new ArrayList<>();
-
-        // Rule 1: Amount-based check
-        riskScore += checkAmount(paymentIntent.getAmount(), triggeredRules);
+    // Scores not-yet-persisted intents of one merchant; the caller persists the returned checks and,
+    // in the same transaction, hands them to scheduleShadowScoring
+    public List<FraudCheck> scoreBatch(String merchantId, List<PaymentIntent> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
 
-        // Rule 2: Velocity check
-        riskScore += checkTransactionVelocity(paymentIntent.getMerchantId(), triggeredRules);
+        LocalDateTime now = LocalDateTime.now();
 
-        // Rule 3: Time-based check
-        riskScore += checkTransactionTime(triggeredRules);
+        List<FraudCheck> fraudChecks = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            // Earlier intents of the same batch count towards velocity, as they would one by one
+            FraudCheck fraudCheck = evaluate(FraudContext.forInitiation(candidates.get(i), now, i + 1));
+            fraudCheck.setCreatedAt(now);
+            fraudChecks.add(fraudCheck);
+        }
 
-        // Rule 4: Duplicate transaction check
-        riskScore += checkDuplicateTransactions(paymentIntent, triggeredRules);
+        log.info("Batch fraud check completed for merchant: {}, payments: {}", merchantId, candidates.size());
 
-        // Set risk level
-        RiskLevel riskLevel = calculateRiskLevel(riskScore);
+        return fraudChecks;
+    }
 
-        fraudCheck.setRiskScore(riskScore);
-        fraudCheck.setRiskLevel(riskLevel);
-        fraudCheck.setRulesTriggered(triggeredRules);
+    // Scores the payer's debit of an existing intent; the check is not persisted, blocks are recorded as events
+    public FraudCheck scoreCompletion(PaymentIntent paymentIntent, String payerAccount) {
+        LocalDateTime now = LocalDateTime.now();
+        if (payerAccount != null) {
+            // Every completion attempt counts, including ones that end up blocked
+            velocitySketches.recordPayer(payerAccount, now);
+        }
 
-        // Save to database
-        FraudCheck savedCheck = fraudCheckRepository.save(fraudCheck);
+        FraudCheck fraudCheck = score(FraudContext.forCompletion(paymentIntent, now, payerAccount));
 
-        log.info("Fraud check completed for session: {}, Risk: {}, Score: {}, Rules: {}",
-                paymentIntent.getSessionId(), riskLevel, riskScore, triggeredRules);
+        log.info("Completion fraud check for session: {}, Risk: {}, Score: {}, Rules: {}",
+                paymentIntent.getSessionId(), fraudCheck.getRiskLevel(), fraudCheck.getRiskScore(),
+                fraudCheck.getRulesTriggered());
 
-        return savedCheck;
+        return fraudCheck;
     }
 
-    private int checkAmount(BigDecimal amount, List<String> triggeredRules) {
-        if (amount.compareTo(amountThreshold) > 0) {
-            triggeredRules.add("HIGH_AMOUNT_TRANSACTION");
-            return 30;
-        } else if (amount.compareTo(amountThreshold.multiply(new BigDecimal("0.7"))) > 0) {
-            triggeredRules.add("MEDIUM_AMOUNT_TRANSACTION");
-            return 15;
-        }
-        return 0;
+    // Counted once the intent has committed, so a rolled-back batch does not inflate velocity
+    public void recordPaymentIntentCreated(PaymentIntent paymentIntent) {
+        LocalDateTime createdAt = paymentIntent.getCreatedAt() != null ? paymentIntent.getCreatedAt() : LocalDateTime.now();
+        runAfterCommit(() -> {
+            velocityTracker.record(paymentIntent.getMerchantId(), createdAt);
+            velocitySketches.recordTerminal(paymentIntent.getMerchantId(), paymentIntent.getTerminalId(), createdAt);
+        });
     }
 
-    private int checkTransactionVelocity(String merchantId, List<String> triggeredRules) {
-
-        Long recentTransactions = paymentIntentRepository.countRecentTransactionsByMerchant(
-                merchantId, LocalDateTime.now().minusHours(1));
-
-        if (recentTransactions > velocityThreshold) {
-            triggeredRules.add("HIGH_TRANSACTION_VELOCITY");
-            return 25;
-        } else if (recentTransactions > velocityThreshold / 2) {
-            triggeredRules.add("MEDIUM_TRANSACTION_VELOCITY");
-            return 10;
-        }
-        return 0;
+    // Only committed completions feed the duplicate filter and the amount percentiles
+    public void recordPaymentCompleted(PaymentIntent paymentIntent) {
+        runAfterCommit(() -> {
+            duplicateDetector.recordCompleted(paymentIntent);
+            amountProfiles.record(paymentIntent.getMerchantId(), paymentIntent.getAmount());
+        });
     }
 
-    private int checkTransactionTime(List<String> triggeredRules) {
-        int hour = LocalDateTime.now().getHour();
-
-        if (hour >= 0 && hour < 5) {
-            triggeredRules.add("UNUSUAL_TRANSACTION_HOURS");
-            return 20;
+    // Shadow rules of a batch run once the transaction persisting it commits and the intents have ids
+    public void scheduleShadowScoring(List<PaymentIntent> scoredIntents, List<FraudCheck> fraudChecks) {
+        for (int i = 0; i < scoredIntents.size(); i++) {
+            FraudCheck fraudCheck = fraudChecks.get(i);
+            LocalDateTime evaluatedAt = fraudCheck.getCreatedAt() != null ? fraudCheck.getCreatedAt() : LocalDateTime.now();
+            shadowFraudScorer.scheduleAfterCommit(
+                    FraudContext.forInitiation(scoredIntents.get(i), evaluatedAt, i + 1), fraudCheck);
         }
-        return 0;
     }
 
-    private int checkDuplicateTransactions(PaymentIntent currentPayment, List<String> triggeredRules) {
+    private FraudCheck score(FraudContext context) {
+        FraudCheck fraudCheck = evaluate(context);
+        shadowFraudScorer.scheduleAfterCommit(context, fraudCheck);
+        return fraudCheck;
+    }
 
-        List<PaymentIntent> recentSimilar = paymentIntentRepository
-                .findRecentSimilarTransactions(
-                        currentPayment.getMerchantId(),
-                        currentPayment.getAmount(),
-                        LocalDateTime.now().minusMinutes(10)
-                );
+    private FraudCheck evaluate(FraudContext context) {
+        FraudEvaluation evaluation = fraudRuleEngine.evaluate(context);
 
-        if (!recentSimilar.isEmpty()) {
-            triggeredRules.add("POSSIBLE_DUPLICATE_TRANSACTION");
-            return 25;
-        }
-        return 0;
-    }
+        FraudCheck fraudCheck = new FraudCheck();
+        fraudCheck.setPaymentIntent(context.getPaymentIntent());
+        fraudCheck.setRiskScore(evaluation.getRiskScore());
+        fraudCheck.setRiskLevel(RiskLevel.forScore(evaluation.getRiskScore()));
+        fraudCheck.setRulesTriggered(evaluation.getTriggeredRules());
 
-    private RiskLevel calculateRiskLevel(int riskScore) {
-        if (riskScore >= 60) return RiskLevel.HIGH;
-        if (riskScore >= 30) return RiskLevel.MEDIUM;
-        return RiskLevel.LOW;
+        fraudMetrics.recordCheck(context.getStage(), fraudCheck, shouldBlockTransaction(fraudCheck));
+        return fraudCheck;
     }
 
     public boolean shouldBlockTransaction(FraudCheck fraudCheck) {
@@ -138,6 +134,20 @@ public class FraudDetectionService {
     }
 
     public Optional<FraudCheck> getFraudCheckBySessionId(String sessionId) {
-        return fraudCheckRepository.findByPaymentIntentSessionId(sessionId);
+        return fraudCheckRepository.findByPaymentIntentSessionIdAndShadowFalse(sessionId);
+    }
+
+    private void runAfterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
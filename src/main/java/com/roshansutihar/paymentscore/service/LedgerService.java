@@ -1,15 +1,26 @@
 package com.roshansutihar.paymentscore.service;
 
 
+import com.roshansutihar.paymentscore.entity.LedgerCheckpoint;
 import com.roshansutihar.paymentscore.entity.LedgerEntry;
+import com.roshansutihar.paymentscore.repository.AccountBalanceRepository;
+import com.roshansutihar.paymentscore.repository.LedgerCheckpointRepository;
 import com.roshansutihar.paymentscore.repository.LedgerEntryRepository;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -17,14 +28,59 @@ import java.util.List;
 public class LedgerService {
 
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Value("${app.ledger.checkpoint.min-entries:1000}")
+    private long checkpointMinEntries;
+
+    @Value("${app.ledger.checkpoint.max-age-hours:24}")
+    private long checkpointMaxAgeHours;
+
+    // Margin for clock skew between the JVM stamping entries and the database; newer entries are left out
+    @Value("${app.ledger.checkpoint.settle-lag-seconds:300}")
+    private long checkpointSettleLagSeconds;
+
+    // Hot accounts and their shard counts, e.g. SYSTEM_COMMISSION=8,MERCHANT_BIGSTORE_1700000000000=4
+    @Value("${app.ledger.sharded-accounts:SYSTEM_COMMISSION=8}")
+    private String shardedAccountsConfig;
+
+    private Map<String, Integer> shardedAccounts = Map.of();
+
+    @PostConstruct
+    void loadShardedAccounts() {
+        Map<String, Integer> parsed = new HashMap<>();
+        for (String entry : shardedAccountsConfig.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new RuntimeException("Invalid app.ledger.sharded-accounts entry: " + entry);
+            }
+            parsed.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        shardedAccounts = Map.copyOf(parsed);
+        log.info("Ledger accounts with sharded balances: {}", shardedAccounts);
+    }
 
     @Transactional
     public void createLedgerEntry(Long paymentIntentId, String accountNumber,
                                   String entryType, BigDecimal amount, String description,
                                   String sourceRoutingNumber) {  // NEW: Added parameter for source routing
 
-        BigDecimal currentBalance = getCurrentBalance(accountNumber);
-        BigDecimal newBalance = calculateNewBalance(currentBalance, entryType, amount);
+        // Row-level upsert: concurrent entries only serialize when they hit the same shard row
+        BigDecimal newBalance = accountBalanceRepository.applyDelta(
+                accountNumber, shardFor(accountNumber, paymentIntentId), signedAmount(entryType, amount));
+
+        // A sharded account has no serial running balance: summing shards written concurrently or being
+        // consolidated double counts or goes backwards, and locking every shard would undo the sharding.
+        // Its entries carry no balance_after; use getBalanceAt for a point-in-time balance instead.
+        if (isSharded(accountNumber)) {
+            newBalance = null;
+        }
 
         LedgerEntry entry = new LedgerEntry();
         entry.setPaymentIntentId(paymentIntentId);
@@ -49,24 +105,133 @@ public class LedgerService {
     }
 
     public BigDecimal getCurrentBalance(String accountNumber) {
-        BigDecimal totalCredits = ledgerEntryRepository.getTotalCredits(accountNumber)
-                .orElse(BigDecimal.ZERO);
-        BigDecimal totalDebits = ledgerEntryRepository.getTotalDebits(accountNumber)
+        return accountBalanceRepository.findBalance(accountNumber)
                 .orElse(BigDecimal.ZERO);
+    }
+
+    // Compares account_balances with latest checkpoint + entries since; the ledger wins on mismatch
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BigDecimal getCurrentBalance(String accountNumber, boolean verify) {
+        BigDecimal materialized = getCurrentBalance(accountNumber);
+        if (!verify) {
+            return materialized;
+        }
+
+        BigDecimal recomputed = recomputeBalance(accountNumber);
+        if (materialized.compareTo(recomputed) != 0) {
+            log.error("Balance mismatch for account: {}, materialized: {}, recomputed from ledger: {}",
+                    accountNumber, materialized, recomputed);
+            return recomputed;
+        }
+        return materialized;
+    }
+
+    // Recomputes the balance from the latest checkpoint plus the entries after it
+    public BigDecimal recomputeBalance(String accountNumber) {
+        return getBalanceAt(accountNumber, LocalDateTime.now().plusYears(100));
+    }
+
+    public BigDecimal getBalanceAt(String accountNumber, LocalDateTime timestamp) {
+        Optional<LedgerCheckpoint> checkpoint = ledgerCheckpointRepository
+                .findFirstByAccountNumberAndAsOfTimeLessThanEqualOrderByAsOfTimeDesc(accountNumber, timestamp);
+
+        BigDecimal openingBalance = checkpoint.map(LedgerCheckpoint::getBalance).orElse(BigDecimal.ZERO);
+        LocalDateTime from = checkpoint.map(LedgerCheckpoint::getAsOfTime).orElse(LEDGER_START);
 
-        return totalCredits.subtract(totalDebits);
+        return openingBalance.add(ledgerEntryRepository.sumNetAmountBetween(accountNumber, from, timestamp));
     }
 
-    private BigDecimal calculateNewBalance(BigDecimal currentBalance, String entryType, BigDecimal amount) {
+    // Checks the latest checkpoint against the previous one plus the entries between them
+    @Transactional(readOnly = true)
+    public boolean verifyLatestCheckpoint(String accountNumber) {
+        List<LedgerCheckpoint> checkpoints = ledgerCheckpointRepository
+                .findTop2ByAccountNumberOrderByAsOfTimeDesc(accountNumber);
+        if (checkpoints.isEmpty()) {
+            return true;
+        }
+
+        LedgerCheckpoint latest = checkpoints.get(0);
+        BigDecimal previousBalance = checkpoints.size() > 1 ? checkpoints.get(1).getBalance() : BigDecimal.ZERO;
+        LocalDateTime previousAsOf = checkpoints.size() > 1 ? checkpoints.get(1).getAsOfTime() : LEDGER_START;
+
+        BigDecimal expected = previousBalance.add(
+                ledgerEntryRepository.sumNetAmountBetween(accountNumber, previousAsOf, latest.getAsOfTime()));
+
+        if (expected.compareTo(latest.getBalance()) != 0) {
+            log.error("Ledger checkpoint {} for account: {} has balance {} but entries give {}",
+                    latest.getId(), accountNumber, latest.getBalance(), expected);
+            return false;
+        }
+        return true;
+    }
+
+    // The cut never passes the start of the oldest open transaction. Entries are stamped inside their
+    // transaction, so one with created_at before that point has already committed by the time the
+    // checkpoint statement (a later snapshot) runs. This assumes the JVM and database clocks agree to
+    // within the settle lag; an entry stamped outside its transaction or by a skewed clock can still
+    // land behind a checkpoint, which verifyLatestCheckpoint reports.
+    @Scheduled(fixedDelayString = "${app.ledger.checkpoint.interval-ms:900000}")
+    public void createCheckpoints() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lagged = now.minusSeconds(checkpointSettleLagSeconds);
+
+        // Every account with entries is checkpointed at least once per max-age window,
+        // so nothing older than the latest checkpoint minus that window needs rescanning
+        LocalDateTime scanFrom = ledgerCheckpointRepository.findLatestAsOfTime()
+                .map(latest -> latest.minusHours(checkpointMaxAgeHours))
+                .orElse(LEDGER_START);
+
+        LocalDateTime asOf = lagged;
+        try {
+            asOf = ledgerCheckpointRepository.findOldestOpenTransactionStart()
+                    .filter(oldest -> oldest.isBefore(lagged))
+                    .orElse(lagged);
+            int created = ledgerCheckpointRepository.createCheckpoints(
+                    asOf, scanFrom, checkpointMinEntries, now.minusHours(checkpointMaxAgeHours));
+            log.info("Created {} ledger checkpoints as of {}", created, asOf);
+        } catch (Exception e) {
+            log.error("Failed to create ledger checkpoints as of {}", asOf, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ledger.shard-rollup-interval-ms:300000}")
+    public void rollUpShardedAccounts() {
+        for (String accountNumber : shardedAccounts.keySet()) {
+            try {
+                accountBalanceRepository.consolidateShards(accountNumber);
+            } catch (Exception e) {
+                log.error("Failed to roll up balance shards for account: {}", accountNumber, e);
+            }
+        }
+    }
+
+    private boolean isSharded(String accountNumber) {
+        Integer shards = shardedAccounts.get(accountNumber);
+        return shards != null && shards > 1;
+    }
+
+    private int shardFor(String accountNumber, Long paymentIntentId) {
+        if (!isSharded(accountNumber) || paymentIntentId == null) {
+            return 0;
+        }
+        return Math.floorMod(Long.hashCode(paymentIntentId), shardedAccounts.get(accountNumber));
+    }
+
+    private BigDecimal signedAmount(String entryType, BigDecimal amount) {
         if ("CREDIT".equals(entryType)) {
-            return currentBalance.add(amount);
+            return amount;
         } else if ("DEBIT".equals(entryType)) {
-            return currentBalance.subtract(amount);
+            return amount.negate();
         }
-        return currentBalance;
+        return BigDecimal.ZERO;
     }
 
     public List<LedgerEntry> getAccountStatement(String accountNumber) {
         return ledgerEntryRepository.findByAccountNumberOrderByCreatedAtDesc(accountNumber);
     }
+
+    // Bounded statement; pair with getBalanceAt(accountNumber, from) for the opening balance
+    public List<LedgerEntry> getAccountStatement(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        return ledgerEntryRepository.findByAccountNumberAndCreatedAtBetweenOrderByCreatedAtAsc(accountNumber, from, to);
+    }
 }
\ No newline at end of file
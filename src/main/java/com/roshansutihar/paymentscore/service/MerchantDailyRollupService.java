@@ -0,0 +1,44 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.roshansutihar.paymentscore.repository.MerchantDailyRollupRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps merchant_daily_rollups in step with completed payments. The upsert runs just before the
+ * completion transaction commits, so it is atomic with the ledger rows it adds up and the lock on
+ * the merchant's row for the day is held only for the commit itself.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MerchantDailyRollupService {
+
+    private final MerchantDailyRollupRepository merchantDailyRollupRepository;
+    private final EntityManager entityManager;
+
+    public void recordCompletion(String merchantId, Long paymentIntentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addCompletedPayment(merchantId, paymentIntentId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                addCompletedPayment(merchantId, paymentIntentId);
+            }
+        });
+    }
+
+    private void addCompletedPayment(String merchantId, Long paymentIntentId) {
+        // The ledger credit, commission and rail transfer may still be pending batched inserts
+        entityManager.flush();
+        merchantDailyRollupRepository.addCompletedPayment(merchantId, paymentIntentId);
+        log.debug("Added payment intent: {} to daily rollup of merchant: {}", paymentIntentId, merchantId);
+    }
+}
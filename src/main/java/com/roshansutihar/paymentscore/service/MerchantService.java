@@ -7,6 +7,7 @@ import com.roshansutihar.paymentscore.enums.MerchantStatus;
 import com.roshansutihar.paymentscore.repository.MerchantAccountRepository;
 import com.roshansutihar.paymentscore.request.MerchantRegistrationRequest;
 import com.roshansutihar.paymentscore.request.MerchantUpdateRequest;
+import com.roshansutihar.paymentscore.security.MerchantSignatureVerifier;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +26,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class MerchantService {
 
     private final MerchantAccountRepository merchantAccountRepository;
+    private final MerchantSignatureVerifier signatureVerifier;
 
 
     public String getMerchantSecret(String merchantId) {
@@ -105,6 +107,7 @@ public class MerchantService {
         String newSecretKey = generateSecretKey();
         merchant.setSecretKey(newSecretKey);
         merchantAccountRepository.save(merchant);
+        signatureVerifier.invalidate(merchantId);
         return newSecretKey;
     }
 
@@ -0,0 +1,205 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.roshansutihar.paymentscore.entity.PaymentEvent;
+import com.roshansutihar.paymentscore.repository.PaymentEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects payment audit events and writes them with JDBC batch inserts.
+ * SYNC flushes the events of a transaction in one batch just before it commits, so they are
+ * as durable as the payment itself. ASYNC hands committed events to a bounded buffer that a
+ * background writer flushes every batch-size events or flush-interval-ms; buffered events are
+ * lost if the process crashes.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PaymentEventJournal {
+
+    public enum Durability {
+        SYNC, ASYNC
+    }
+
+    private final PaymentEventRepository paymentEventRepository;
+    private final EntityManager entityManager;
+
+    @Value("${app.events.journal.mode:SYNC}")
+    private Durability durability;
+
+    @Value("${app.events.journal.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${app.events.journal.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.events.journal.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    private BlockingQueue<PaymentEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (durability != Durability.ASYNC) {
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "payment-event-journal");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Payment event journal running asynchronously, batch size: {}, flush interval: {}ms",
+                batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+
+        List<PaymentEvent> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        write(remaining);
+    }
+
+    public void record(Long paymentIntentId, String eventType, String message) {
+        PaymentEvent event = createEvent(eventType, message);
+        event.setPaymentIntentId(paymentIntentId);
+
+        if (durability == Durability.ASYNC) {
+            runAfterCommit(() -> enqueue(event));
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            pendingForTransaction().add(event);
+        } else {
+            write(List.of(event));
+        }
+
+        log.debug("Recorded payment event: {} for payment intent: {}", eventType, paymentIntentId);
+    }
+
+    // Builds an event without recording it, for callers that write events together with their intent
+    public PaymentEvent createEvent(String eventType, String message) {
+        PaymentEvent event = new PaymentEvent();
+        event.setEventType(eventType);
+        event.setCreatedAt(LocalDateTime.now());
+        event.setPayload(String.format("{\"message\": \"%s\", \"timestamp\": \"%s\"}",
+                message, event.getCreatedAt()));
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PaymentEvent> pendingForTransaction() {
+        List<PaymentEvent> pending = (List<PaymentEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        List<PaymentEvent> events = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, events);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Intents may still sit in the persistence context; they must exist for the FK
+                entityManager.flush();
+                write(events);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PaymentEventJournal.this);
+            }
+        });
+        return events;
+    }
+
+    private void enqueue(PaymentEvent event) {
+        if (!buffer.offer(event)) {
+            log.warn("Payment event buffer full ({}), writing event {} synchronously",
+                    bufferCapacity, event.getEventType());
+            write(List.of(event));
+        }
+    }
+
+    private void writeLoop() {
+        List<PaymentEvent> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PaymentEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PaymentEvent next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (running) {
+                    continue;
+                }
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PaymentEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            paymentEventRepository.insertAll(events);
+        } catch (RuntimeException e) {
+            if (durability == Durability.SYNC) {
+                throw e;
+            }
+            log.error("Failed to write {} buffered payment events", events.size(), e);
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -4,17 +4,25 @@ import com.roshansutihar.paymentscore.entity.*;
 import com.roshansutihar.paymentscore.enums.PaymentStatus;
 import com.roshansutihar.paymentscore.enums.TransferStatus;
 import com.roshansutihar.paymentscore.entity.MerchantAccount;
+import com.roshansutihar.paymentscore.fraud.FraudMetrics;
 import com.roshansutihar.paymentscore.repository.*;
+import com.roshansutihar.paymentscore.request.PaymentInitiationRequest;
+import com.roshansutihar.paymentscore.session.PaymentSessionCache;
+import com.roshansutihar.paymentscore.session.SessionIdGenerator;
+import lombok.Builder;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -23,61 +31,134 @@ public class PaymentOrchestrationService {
 
     private final PaymentIntentRepository paymentIntentRepository;
     private final MerchantAccountRepository merchantAccountRepository;
-    private final PaymentEventRepository paymentEventRepository;
     private final RailTransferRepository railTransferRepository;
     private final TransactionCommissionRepository transactionCommissionRepository;
     private final CommissionService commissionService;
     private final LedgerService ledgerService;
+    private final MerchantDailyRollupService merchantDailyRollupService;
+    private final FraudDetectionService fraudDetectionService;
+    private final FraudMetrics fraudMetrics;
+    private final SessionIdGenerator sessionIdGenerator;
+    private final PaymentSessionCache paymentSessionCache;
+    private final PaymentEventJournal paymentEventJournal;
+    private final TransactionTemplate transactionTemplate;
+
+    // Single-payment initiation runs the same score-before-persist pipeline as a batch of one
+    public InitiationResult initiatePayment(String merchantId, PaymentInitiationRequest request) {
+        return createPaymentIntents(merchantId, List.of(request)).get(0);
+    }
 
-    @Transactional
-    public PaymentIntent createPaymentIntent(String merchantId, String terminalId,
-                                             BigDecimal amount, String transactionRef,
-                                             String callbackUrl) {
+    // Not @Transactional: scoring fans expensive rules out to pool threads that need connections of
+    // their own, so no connection is held while waiting on them. Only the insert runs in a transaction.
+    public List<InitiationResult> createPaymentIntents(String merchantId,
+                                                      List<PaymentInitiationRequest> requests) {
 
-        log.info("Creating payment intent for merchant: {}, terminal: {}, amount: {}",
-                merchantId, terminalId, amount);
+        log.info("Creating batch of {} payment intents for merchant: {}", requests.size(), merchantId);
 
         MerchantAccount merchant = merchantAccountRepository
                 .findByMerchantIdAndStatus(merchantId, "ACTIVE")
                 .orElseThrow(() -> new RuntimeException("Merchant not found or inactive: " + merchantId));
 
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Invalid amount: " + amount);
+        LocalDateTime now = LocalDateTime.now();
+        List<InitiationResult> results = new ArrayList<>(requests.size());
+        List<PaymentIntent> candidates = new ArrayList<>(requests.size());
+
+        for (PaymentInitiationRequest request : requests) {
+            String validationError = validateInitiationRequest(request);
+            if (validationError != null) {
+                results.add(InitiationResult.builder().error(validationError).build());
+                continue;
+            }
+
+            PaymentIntent paymentIntent = new PaymentIntent();
+            paymentIntent.setMerchantId(merchantId);
+            paymentIntent.setTerminalId(request.getTerminalId());
+            paymentIntent.setSessionId(generateSessionId());
+            paymentIntent.setAmount(request.getAmount());
+            paymentIntent.setCurrency("USD");
+            paymentIntent.setStatus(PaymentStatus.PENDING);
+            paymentIntent.setExpiryTime(now.plusMinutes(15)); // 15 min expiry
+            paymentIntent.setTransactionRef(request.getTransactionRef());
+            paymentIntent.setCallbackUrl(request.getCallbackUrl() != null
+                    ? request.getCallbackUrl() : merchant.getCallbackUrl());
+            paymentIntent.setCreatedAt(now);
+            paymentIntent.setUpdatedAt(now);
+
+            candidates.add(paymentIntent);
+            results.add(InitiationResult.builder().paymentIntent(paymentIntent).build());
         }
 
-        String sessionId = generateSessionId();
+        // Score before inserting so blocked intents are written once, already FAILED
+        List<FraudCheck> fraudChecks = fraudMetrics.timeInitiationStage("fraud_check", () ->
+                fraudDetectionService.scoreBatch(merchantId, candidates));
+
+        List<PaymentEvent> events = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            PaymentIntent paymentIntent = candidates.get(i);
+            fraudChecks.get(i).setCreatedAt(now);
+
+            events.add(initiationEvent(paymentIntent, "CREATED",
+                    String.format("Payment intent created for amount: %s USD", paymentIntent.getAmount())));
+            if (fraudDetectionService.shouldBlockTransaction(fraudChecks.get(i))) {
+                paymentIntent.setStatus(PaymentStatus.FAILED);
+                events.add(initiationEvent(paymentIntent, PaymentStatus.FAILED.name() + "_BY_FRAUD_SYSTEM",
+                        "Status updated to FAILED: Transaction flagged by fraud system"));
+            }
+        }
 
-        PaymentIntent paymentIntent = new PaymentIntent();
-        paymentIntent.setMerchantId(merchantId);
-        paymentIntent.setTerminalId(terminalId);
-        paymentIntent.setSessionId(sessionId);
-        paymentIntent.setAmount(amount);
-        paymentIntent.setCurrency("USD");
-        paymentIntent.setStatus(PaymentStatus.PENDING);
-        paymentIntent.setExpiryTime(LocalDateTime.now().plusMinutes(15)); // 15 min expiry
-        paymentIntent.setTransactionRef(transactionRef);
-        paymentIntent.setCallbackUrl(callbackUrl != null ? callbackUrl : merchant.getCallbackUrl());
+        // Intents, fraud checks and events go to the database in a single statement
+        fraudMetrics.timeInitiationStage("persist", () -> transactionTemplate.execute(status -> {
+            paymentIntentRepository.insertAllScored(candidates, fraudChecks, events);
+            candidates.forEach(fraudDetectionService::recordPaymentIntentCreated);
+            fraudDetectionService.scheduleShadowScoring(candidates, fraudChecks);
+            return null;
+        }));
+
+        candidates.forEach(paymentSessionCache::put);
+
+        int fraudIndex = 0;
+        for (InitiationResult result : results) {
+            if (result.getPaymentIntent() != null) {
+                FraudCheck fraudCheck = fraudChecks.get(fraudIndex++);
+                result.setFraudCheck(fraudCheck);
+                result.setBlocked(result.getPaymentIntent().getStatus() == PaymentStatus.FAILED);
+            }
+        }
 
-        PaymentIntent savedIntent = paymentIntentRepository.save(paymentIntent);
+        log.info("Created batch of {} payment intents for merchant: {}", candidates.size(), merchantId);
 
-        recordPaymentEvent(savedIntent.getId(), "CREATED",
-                String.format("Payment intent created for amount: %s USD", amount));
+        return results;
+    }
 
-        log.info("Successfully created payment intent: {} with session: {}",
-                savedIntent.getId(), sessionId);
+    private PaymentEvent initiationEvent(PaymentIntent paymentIntent, String eventType, String message) {
+        PaymentEvent event = paymentEventJournal.createEvent(eventType, message);
+        event.setPaymentIntent(paymentIntent);
+        return event;
+    }
 
-        return savedIntent;
+    private String validateInitiationRequest(PaymentInitiationRequest request) {
+        if (request == null) {
+            return "Missing payment request";
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Invalid amount: " + request.getAmount();
+        }
+        if (request.getTransactionRef() == null || request.getTransactionRef().trim().isEmpty()) {
+            return "Transaction reference is required";
+        }
+        return null;
     }
 
     public PaymentIntent verifyPaymentSession(String sessionId) {
         log.info("Verifying payment session: {}", sessionId);
 
-        PaymentIntent paymentIntent = paymentIntentRepository.findBySessionId(sessionId)
+        PaymentIntent paymentIntent = findLiveSession(sessionId)
                 .orElseThrow(() -> new RuntimeException("Invalid session ID: " + sessionId));
 
         if (paymentIntent.isExpired()) {
             paymentIntent.setStatus(PaymentStatus.CANCELLED);
             paymentIntentRepository.save(paymentIntent);
+            paymentSessionCache.evict(sessionId);
             recordPaymentEvent(paymentIntent.getId(), "EXPIRED", "Payment session expired");
             throw new RuntimeException("Payment session has expired");
         }
@@ -107,6 +188,23 @@ public class PaymentOrchestrationService {
             throw new RuntimeException("Payment already processed with status: " + paymentIntent.getStatus());
         }
 
+        FraudCheck completionCheck = fraudDetectionService.scoreCompletion(paymentIntent, fromAccount);
+        if (fraudDetectionService.shouldBlockTransaction(completionCheck)) {
+            log.warn("Payment completion blocked by fraud check. Session: {}, Risk: {}, Score: {}, Rules: {}",
+                    sessionId, completionCheck.getRiskLevel(), completionCheck.getRiskScore(),
+                    completionCheck.getRulesTriggered());
+
+            paymentIntent.setStatus(PaymentStatus.FAILED);
+            paymentIntent.setUpdatedAt(LocalDateTime.now());
+            PaymentIntent failedIntent = paymentIntentRepository.save(paymentIntent);
+            paymentSessionCache.evict(sessionId);
+
+            recordPaymentEvent(failedIntent.getId(), "COMPLETION_BLOCKED_BY_FRAUD_SYSTEM",
+                    String.format("Score: %d, Rules: %s",
+                            completionCheck.getRiskScore(), completionCheck.getRulesTriggered()));
+            return failedIntent;
+        }
+
         MerchantAccount merchant = merchantAccountRepository.findByMerchantId(merchantId)
                 .orElseThrow(() -> new RuntimeException("Merchant not found"));
 
@@ -128,10 +226,13 @@ public class PaymentOrchestrationService {
         paymentIntent.setStatus(PaymentStatus.COMPLETED);
         paymentIntent.setUpdatedAt(LocalDateTime.now());
         PaymentIntent updatedIntent = paymentIntentRepository.save(paymentIntent);
+        paymentSessionCache.evict(sessionId);
+        fraudDetectionService.recordPaymentCompleted(updatedIntent);
 
         RailTransfer railTransfer = createRailTransfer(updatedIntent, fromAccount);
 
         recordLedgerEntries(updatedIntent, commission, fromAccount, sourceRoutingNumber);
+        merchantDailyRollupService.recordCompletion(updatedIntent.getMerchantId(), updatedIntent.getId());
 
         recordPaymentEvent(updatedIntent.getId(), "COMPLETED", "Payment completed successfully");
         recordPaymentEvent(updatedIntent.getId(), "COMMISSION_CALCULATED",
@@ -158,6 +259,7 @@ public class PaymentOrchestrationService {
         paymentIntent.setStatus(PaymentStatus.CANCELLED);
         paymentIntent.setUpdatedAt(LocalDateTime.now());
         PaymentIntent cancelledIntent = paymentIntentRepository.save(paymentIntent);
+        paymentSessionCache.evict(sessionId);
 
         recordPaymentEvent(cancelledIntent.getId(), "CANCELLED",
                 String.format("Payment cancelled: %s", reason));
@@ -166,10 +268,22 @@ public class PaymentOrchestrationService {
     }
 
     public PaymentIntent getPaymentIntentBySessionId(String sessionId) {
-        return paymentIntentRepository.findBySessionId(sessionId)
+        return findLiveSession(sessionId)
                 .orElseThrow(() -> new RuntimeException("Payment intent not found: " + sessionId));
     }
 
+    // Read-only lookups go through the session cache; state changes still read the row they update
+    private Optional<PaymentIntent> findLiveSession(String sessionId) {
+        Optional<PaymentIntent> cached = paymentSessionCache.get(sessionId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<PaymentIntent> loaded = paymentIntentRepository.findBySessionId(sessionId);
+        loaded.ifPresent(paymentSessionCache::put);
+        return loaded;
+    }
+
     public PaymentIntent getPaymentIntentByTransactionRef(String transactionRef) {
         return paymentIntentRepository.findByTransactionRef(transactionRef)
                 .orElseThrow(() -> new RuntimeException("Payment intent not found for ref: " + transactionRef));
@@ -190,6 +304,7 @@ public class PaymentOrchestrationService {
         paymentIntent.setStatus(status);
         paymentIntent.setUpdatedAt(LocalDateTime.now());
         PaymentIntent updatedIntent = paymentIntentRepository.save(paymentIntent);
+        paymentSessionCache.evict(sessionId);
 
         // Record the status change event
         recordPaymentEvent(updatedIntent.getId(),
@@ -275,20 +390,19 @@ public class PaymentOrchestrationService {
     }
 
     private void recordPaymentEvent(Long paymentIntentId, String eventType, String message) {
-        PaymentIntent paymentIntent = paymentIntentRepository.findById(paymentIntentId)
-                .orElseThrow(() -> new RuntimeException("Payment intent not found: " + paymentIntentId));
-
-        PaymentEvent event = new PaymentEvent();
-        event.setPaymentIntent(paymentIntent);
-        event.setEventType(eventType);
-        event.setPayload(String.format("{\"message\": \"%s\", \"timestamp\": \"%s\"}",
-                message, LocalDateTime.now()));
-        paymentEventRepository.save(event);
-
-        log.debug("Recorded payment event: {} for payment intent: {}", eventType, paymentIntentId);
+        paymentEventJournal.record(paymentIntentId, eventType, message);
     }
 
     private String generateSessionId() {
-        return "SESS_" + UUID.randomUUID().toString().replace("-", "").substring(0, 24).toUpperCase();
+        return sessionIdGenerator.nextSessionId();
+    }
+
+    @Data
+    @Builder
+    public static class InitiationResult {
+        private PaymentIntent paymentIntent;
+        private FraudCheck fraudCheck;
+        private boolean blocked;
+        private String error;
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.roshansutihar.paymentscore.dtos.SettlementCandidateDTO;
+import com.roshansutihar.paymentscore.dtos.SettlementResponse;
+import com.roshansutihar.paymentscore.dtos.SettlementTransaction;
+import com.roshansutihar.paymentscore.entity.MerchantAccount;
+import com.roshansutihar.paymentscore.entity.MerchantSettlement;
+import com.roshansutihar.paymentscore.entity.MerchantSettlementItem;
+import com.roshansutihar.paymentscore.enums.TransferStatus;
+import com.roshansutihar.paymentscore.repository.MerchantAccountRepository;
+import com.roshansutihar.paymentscore.repository.MerchantDailyRollupRepository;
+import com.roshansutihar.paymentscore.repository.MerchantSettlementItemRepository;
+import com.roshansutihar.paymentscore.repository.MerchantSettlementRepository;
+import com.roshansutihar.paymentscore.repository.RailTransferRepository;
+import com.roshansutihar.paymentscore.request.SettlementMarkRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds and stores merchant settlements. A merchant has at most one settlement pending with the
+ * bank; every GET returns that stored settlement until it is marked settled, and only then does
+ * the next GET claim the acknowledged transfers that have accumulated since. A GET whose range
+ * does not cover the pending settlement's period is rejected rather than answered with it.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SettlementService {
+
+    public static final String STATUS_PENDING = "PENDING_SETTLEMENT";
+    public static final String STATUS_SETTLED = "SETTLED";
+
+    private final MerchantSettlementRepository merchantSettlementRepository;
+    private final MerchantSettlementItemRepository merchantSettlementItemRepository;
+    private final MerchantAccountRepository merchantAccountRepository;
+    private final RailTransferRepository railTransferRepository;
+    private final MerchantDailyRollupRepository merchantDailyRollupRepository;
+
+    // Returns the pending settlement, creating it from unsettled transfers in the range if there is none.
+    // Throws IllegalStateException if the pending settlement has transfers outside the range.
+    @Transactional
+    public Optional<SettlementResponse> getOrCreatePendingSettlement(String merchantId,
+                                                                    LocalDateTime from,
+                                                                    LocalDateTime to) {
+        // Repeated GETs while a settlement is pending are the common case and need no lock
+        Optional<MerchantSettlement> pending = merchantSettlementRepository
+                .findFirstByMerchantIdAndStatus(merchantId, STATUS_PENDING);
+        if (pending.isPresent()) {
+            requireWithin(pending.get(), from, to);
+            MerchantAccount merchant = merchantAccountRepository.findByMerchantId(merchantId)
+                    .orElseThrow(() -> new RuntimeException("Merchant not found: " + merchantId));
+            return Optional.of(toResponse(merchant, pending.get(), loadItems(pending.get())));
+        }
+
+        MerchantAccount merchant = merchantAccountRepository.findByMerchantIdForUpdate(merchantId)
+                .orElseThrow(() -> new RuntimeException("Merchant not found: " + merchantId));
+
+        // Another request may have created one while this one waited for the lock
+        pending = merchantSettlementRepository.findFirstByMerchantIdAndStatus(merchantId, STATUS_PENDING);
+        if (pending.isPresent()) {
+            requireWithin(pending.get(), from, to);
+            return Optional.of(toResponse(merchant, pending.get(), loadItems(pending.get())));
+        }
+
+        LocalDateTime periodEnd = to != null ? to : LocalDateTime.now();
+        String merchantAccount = "MERCHANT_" + merchantId;
+        List<SettlementCandidateDTO> candidates = from != null
+                ? railTransferRepository.findUnsettled(
+                        merchantId, merchantAccount, TransferStatus.ACKNOWLEDGED, from, periodEnd)
+                : railTransferRepository.findUnsettledThrough(
+                        merchantId, merchantAccount, TransferStatus.ACKNOWLEDGED, periodEnd);
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Candidates come ordered by created_at, so the period is their first and last
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal totalCommission = BigDecimal.ZERO;
+        BigDecimal totalNetAmount = BigDecimal.ZERO;
+        List<MerchantSettlementItem> items = new ArrayList<>(candidates.size());
+        for (SettlementCandidateDTO candidate : candidates) {
+            totalAmount = totalAmount.add(candidate.getAmount());
+            totalCommission = totalCommission.add(candidate.getCommissionAmount());
+            totalNetAmount = totalNetAmount.add(candidate.getNetAmount());
+            items.add(MerchantSettlementItem.builder()
+                    .railTransferId(candidate.getRailTransferId())
+                    .paymentIntentId(candidate.getPaymentIntentId())
+                    .transactionRef(candidate.getTransactionRef())
+                    .sessionId(candidate.getSessionId())
+                    .amount(candidate.getAmount())
+                    .commissionAmount(candidate.getCommissionAmount())
+                    .netAmount(candidate.getNetAmount())
+                    .currency(candidate.getCurrency())
+                    .transferStatus(candidate.getTransferStatus())
+                    .transactionCreatedAt(candidate.getCreatedAt())
+                    .transferSettlementDate(candidate.getTransferSettlementDate())
+                    .build());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        MerchantSettlement settlement = merchantSettlementRepository.save(MerchantSettlement.builder()
+                .merchantId(merchantId)
+                .settlementReference(generateSettlementReference(merchantId, now))
+                .totalAmount(totalAmount)
+                .commissionAmount(totalCommission)
+                .netAmount(totalNetAmount)
+                .transactionCount(items.size())
+                .periodFrom(candidates.get(0).getCreatedAt())
+                .periodTo(candidates.get(candidates.size() - 1).getCreatedAt())
+                .status(STATUS_PENDING)
+                .settlementDate(now.toLocalDate())
+                .createdAt(now)
+                .build());
+
+        items.forEach(item -> item.setSettlementId(settlement.getId()));
+        merchantSettlementItemRepository.saveAll(items);
+
+        log.info("Created settlement {} for merchant: {} with {} transactions, net amount: {}",
+                settlement.getSettlementReference(), merchantId, items.size(), totalNetAmount);
+
+        return Optional.of(toResponse(merchant, settlement, items));
+    }
+
+    @Transactional
+    public MerchantSettlement markSettled(SettlementMarkRequest request) {
+        MerchantSettlement settlement = merchantSettlementRepository
+                .findBySettlementReference(request.getSettlementId())
+                .orElseThrow(() -> new RuntimeException("Settlement not found: " + request.getSettlementId()));
+
+        if (STATUS_SETTLED.equals(settlement.getStatus())) {
+            return settlement;
+        }
+
+        if (request.getTransactionRefs().size() != settlement.getTransactionCount()
+                || !matchesAmount(request.getTotalAmount(), settlement.getTotalAmount())
+                || !matchesAmount(request.getTotalNetAmount(), settlement.getNetAmount())
+                || !matchesAmount(request.getTotalFees(), settlement.getCommissionAmount())) {
+            throw new RuntimeException("Settlement totals do not match settlement " + settlement.getSettlementReference());
+        }
+
+        // Moving rollups is not idempotent, so only the call that wins the transition applies the side effects
+        Long settlementId = settlement.getId();
+        int claimed = merchantSettlementRepository.updateStatus(
+                settlementId, STATUS_PENDING, STATUS_SETTLED, LocalDateTime.now());
+        if (claimed != 1) {
+            log.info("Settlement {} was already marked as settled by a concurrent request",
+                    settlement.getSettlementReference());
+            return reload(settlementId);
+        }
+
+        int transfers = railTransferRepository.updateStatusBySettlement(settlementId, TransferStatus.SETTLED);
+        merchantDailyRollupRepository.moveSettlementPayments(settlement.getMerchantId(), settlementId,
+                TransferStatus.ACKNOWLEDGED.name(), TransferStatus.SETTLED.name());
+
+        log.info("Settlement {} marked as settled, {} rail transfers settled",
+                settlement.getSettlementReference(), transfers);
+
+        return reload(settlementId);
+    }
+
+    private static void requireWithin(MerchantSettlement pending, LocalDateTime from, LocalDateTime to) {
+        if ((from != null && pending.getPeriodFrom().isBefore(from))
+                || (to != null && pending.getPeriodTo().isAfter(to))) {
+            throw new IllegalStateException("Settlement " + pending.getSettlementReference()
+                    + " for " + pending.getPeriodFrom() + " to " + pending.getPeriodTo()
+                    + " is still pending and falls outside the requested period");
+        }
+    }
+
+    // Clients total in doubles, so 0.1 + 0.2 arrives as 0.30000000000000004; amounts are stored to the cent
+    private static boolean matchesAmount(Double requested, BigDecimal stored) {
+        return BigDecimal.valueOf(requested).setScale(2, RoundingMode.HALF_UP)
+                .compareTo(stored.setScale(2, RoundingMode.HALF_UP)) == 0;
+    }
+
+    private MerchantSettlement reload(Long settlementId) {
+        return merchantSettlementRepository.findById(settlementId)
+                .orElseThrow(() -> new RuntimeException("Settlement not found: " + settlementId));
+    }
+
+    private List<MerchantSettlementItem> loadItems(MerchantSettlement settlement) {
+        return merchantSettlementItemRepository.findBySettlementIdOrderByTransactionCreatedAtAscIdAsc(settlement.getId());
+    }
+
+    // Second resolution alone collides for back-to-back settlements of one merchant
+    private String generateSettlementReference(String merchantId, LocalDateTime now) {
+        return "SETTLE_" + merchantId + "_" + now.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + "_" +
+                UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private SettlementResponse toResponse(MerchantAccount merchant, MerchantSettlement settlement,
+                                          List<MerchantSettlementItem> items) {
+        List<SettlementTransaction> transactions = items.stream()
+                .map(item -> SettlementTransaction.builder()
+                        .transactionRef(item.getTransactionRef())
+                        .sessionId(item.getSessionId())
+                        .amount(item.getAmount())
+                        .fees(item.getCommissionAmount())
+                        .netAmount(item.getNetAmount())
+                        .currency(item.getCurrency())
+                        .status(item.getTransferStatus())
+                        .createdAt(item.getTransactionCreatedAt())
+                        .completedAt(item.getTransferSettlementDate())
+                        .settlementDate(item.getTransferSettlementDate())
+                        .build())
+                .toList();
+
+        return SettlementResponse.builder()
+                .settlementId(settlement.getSettlementReference())
+                .merchantId(settlement.getMerchantId())
+                .bankAccountNumber(merchant.getBankAccountNumber())
+                .bankRoutingNumber(merchant.getBankRoutingNumber())
+                .generatedAt(settlement.getCreatedAt())
+                .periodFrom(settlement.getPeriodFrom())
+                .periodTo(settlement.getPeriodTo())
+                .transactions(transactions)
+                .transactionCount(settlement.getTransactionCount())
+                .totalAmount(settlement.getTotalAmount())
+                .totalFees(settlement.getCommissionAmount())
+                .totalNetAmount(settlement.getNetAmount())
+                .status(settlement.getStatus())
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roshansutihar.paymentscore.dtos.MerchantTransactionDTO;
+import com.roshansutihar.paymentscore.enums.TransactionExportFormat;
+import com.roshansutihar.paymentscore.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams merchant transactions straight from a database cursor to the response. Rows are
+ * written as they are fetched and flushed every flush-rows rows; a slow client blocks the
+ * writes and with them the cursor, so memory stays at one fetch regardless of the range.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final String CSV_HEADER = "session_id,transaction_ref,amount,currency,status,created_at," +
+            "completed_at,commission_amount,net_amount,settlement_date";
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.transactions.export.flush-rows:500}")
+    private int flushRows;
+
+    @Transactional(readOnly = true)
+    public long export(String merchantId, LocalDateTime startDate, LocalDateTime endDate, String status,
+                       TransactionExportFormat format, boolean gzip, OutputStream out) throws IOException {
+
+        // Sync flush so every chunk reaches the client instead of sitting in the deflater
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192, true) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+
+        long rows = 0;
+        try (Stream<MerchantTransactionDTO> transactions = ledgerEntryRepository.streamMerchantTransactions(
+                "MERCHANT_" + merchantId, startDate, endDate, status == null || status.isEmpty() ? null : status)) {
+
+            if (format == TransactionExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            Iterator<MerchantTransactionDTO> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                MerchantTransactionDTO transaction = iterator.next();
+                if (format == TransactionExportFormat.CSV) {
+                    writeCsv(writer, transaction);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(transaction));
+                    writer.write('\n');
+                }
+
+                if (++rows % flushRows == 0) {
+                    writer.flush();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        out.flush();
+
+        log.info("Exported {} transactions for merchant: {} from {} to {} as {}", rows, merchantId,
+                startDate, endDate, format);
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, MerchantTransactionDTO transaction) throws IOException {
+        writer.write(csv(transaction.getSessionId()));
+        writer.write(',');
+        writer.write(csv(transaction.getTransactionRef()));
+        writer.write(',');
+        writer.write(csv(transaction.getAmount()));
+        writer.write(',');
+        writer.write(csv(transaction.getCurrency()));
+        writer.write(',');
+        writer.write(csv(transaction.getStatus()));
+        writer.write(',');
+        writer.write(csv(transaction.getCreatedAt()));
+        writer.write(',');
+        writer.write(csv(transaction.getCompletedAt()));
+        writer.write(',');
+        writer.write(csv(transaction.getCommissionAmount()));
+        writer.write(',');
+        writer.write(csv(transaction.getNetAmount()));
+        writer.write(',');
+        writer.write(csv(transaction.getSettlementDate()));
+        writer.write('\n');
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal amount ? amount.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
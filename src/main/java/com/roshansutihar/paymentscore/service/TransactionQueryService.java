@@ -8,126 +8,122 @@ import com.roshansutihar.paymentscore.response.MerchantTransactionsResponse;
 import com.roshansutihar.paymentscore.response.TransactionSummaryResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TransactionQueryService {
 
+    private static final LocalTime LAST_MICROSECOND_OF_DAY = LocalTime.MAX.withNano(999_999_000);
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
     private final LedgerEntryRepository ledgerEntryRepository;
-    private final RailTransferRepository railTransferRepository;
-    private final TransactionCommissionRepository transactionCommissionRepository;
-    private final PaymentIntentRepository paymentIntentRepository;
+    private final MerchantDailyRollupRepository merchantDailyRollupRepository;
+
+    @Value("${app.transactions.page.max-size:500}")
+    private int maxPageSize;
+
+    // When off, summaries aggregate the whole range from the ledger in the database
+    @Value("${app.transactions.summary.rollups-enabled:true}")
+    private boolean summaryRollupsEnabled;
 
+    // Pages through merchant credits in (created_at, id) order; range totals come with the first page only
     public MerchantTransactionsResponse getMerchantTransactions(String merchantId,
                                                                 LocalDateTime startDate,
                                                                 LocalDateTime endDate,
-                                                                String status) {
+                                                                String status,
+                                                                String cursor,
+                                                                int limit) {
 
         String merchantAccount = "MERCHANT_" + merchantId;
-        List<LedgerEntry> creditEntries = ledgerEntryRepository
-                .findByAccountNumberAndEntryTypeAndCreatedAtBetween(
-                        merchantAccount, "CREDIT", startDate, endDate);
-
-
-        if (status != null && !status.isEmpty()) {
-            creditEntries = creditEntries.stream()
-                    .filter(entry -> {
-
-                        List<RailTransfer> railTransfers = railTransferRepository
-                                .findByPaymentIntentId(entry.getPaymentIntentId());
-                        return !railTransfers.isEmpty() &&
-                                railTransfers.get(0).getStatus().name().equals(status);
-                    })
-                    .collect(Collectors.toList());
+        String statusFilter = status == null || status.isEmpty() ? null : status;
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // One extra row tells whether another page follows
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        List<MerchantTransactionDTO> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = ledgerEntryRepository.findMerchantTransactions(
+                    merchantAccount, startDate, endDate, statusFilter, fetchLimit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = ledgerEntryRepository.findMerchantTransactionsAfter(
+                    merchantAccount, startDate, endDate, statusFilter, position.createdAt(), position.id(), fetchLimit);
         }
 
-        List<MerchantTransactionDTO> transactions = creditEntries.stream()
-                .map(this::mapLedgerToTransactionDTO)
-                .collect(Collectors.toList());
+        boolean hasMore = rows.size() > pageSize;
+        List<MerchantTransactionDTO> transactions = hasMore ? rows.subList(0, pageSize) : rows;
+        MerchantTransactionDTO last = transactions.isEmpty() ? null : transactions.get(transactions.size() - 1);
 
-        return MerchantTransactionsResponse.builder()
+        MerchantTransactionsResponse.MerchantTransactionsResponseBuilder response = MerchantTransactionsResponse.builder()
                 .merchantId(merchantId)
                 .transactions(transactions)
-                .totalCount(transactions.size())
-                .totalAmount(calculateTotalAmount(transactions))
-                .build();
-    }
-
-    private MerchantTransactionDTO mapLedgerToTransactionDTO(LedgerEntry ledgerEntry) {
+                .nextCursor(hasMore ? new TransactionCursor(last.getCreatedAt(), last.getLedgerEntryId()).encode() : null);
 
-        PaymentIntent paymentIntent = paymentIntentRepository
-                .findById(ledgerEntry.getPaymentIntentId())
-                .orElse(null);
-
-
-        Optional<TransactionCommission> commission = transactionCommissionRepository
-                .findByPaymentIntentId(ledgerEntry.getPaymentIntentId());
-
-
-        List<RailTransfer> railTransfers = railTransferRepository
-                .findByPaymentIntentId(ledgerEntry.getPaymentIntentId());
-        RailTransfer railTransfer = railTransfers.isEmpty() ? null : railTransfers.get(0);
-
-
-        BigDecimal originalAmount = paymentIntent != null ? paymentIntent.getAmount() : ledgerEntry.getAmount();
-        BigDecimal commissionAmount = commission.map(TransactionCommission::getCommissionAmount)
-                .orElse(BigDecimal.ZERO);
-        BigDecimal netAmount = ledgerEntry.getAmount(); // This is what actually went to merchant
+        if (cursor == null || cursor.isEmpty()) {
+            MerchantTransactionTotalsDTO totals = ledgerEntryRepository.getMerchantTransactionTotals(
+                    merchantAccount, startDate, endDate, statusFilter);
+            response.totalCount(totals.getCount().intValue())
+                    .totalAmount(totals.getAmount());
+        }
 
-        return MerchantTransactionDTO.builder()
-                .sessionId(paymentIntent != null ? paymentIntent.getSessionId() : "N/A")
-                .transactionRef(paymentIntent != null ? paymentIntent.getTransactionRef() : "N/A")
-                .amount(originalAmount)
-                .currency(paymentIntent != null ? paymentIntent.getCurrency() : "USD")
-                .status(railTransfer != null ? railTransfer.getStatus().name() : "UNKNOWN")
-                .createdAt(ledgerEntry.getCreatedAt())
-                .completedAt(railTransfer != null ? railTransfer.getSettlementDate() : null)
-                .commissionAmount(commissionAmount)
-                .netAmount(netAmount)
-                .settlementDate(railTransfer != null ? railTransfer.getSettlementDate() : null)
-                .build();
+        return response.build();
     }
 
+    // Whole days come from merchant_daily_rollups, only partial days at either end from the ledger
     public TransactionSummaryResponse getTransactionSummary(String merchantId,
                                                             LocalDateTime startDate,
                                                             LocalDateTime endDate) {
 
         String merchantAccount = "MERCHANT_" + merchantId;
 
+        LocalDate firstFullDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? startDate.toLocalDate() : startDate.toLocalDate().plusDays(1);
+        // The end is inclusive; timestamps are stored to the microsecond
+        LocalDate lastFullDay = endDate.toLocalTime().isBefore(LAST_MICROSECOND_OF_DAY)
+                ? endDate.toLocalDate().minusDays(1) : endDate.toLocalDate();
+
+        List<MerchantStatusTotalsDTO> totals = new ArrayList<>();
+        if (!summaryRollupsEnabled || firstFullDay.isAfter(lastFullDay)) {
+            totals.addAll(ledgerEntryRepository.sumMerchantCreditsByStatusThrough(merchantAccount, startDate, endDate));
+        } else {
+            if (startDate.isBefore(firstFullDay.atStartOfDay())) {
+                totals.addAll(ledgerEntryRepository.sumMerchantCreditsByStatusBefore(
+                        merchantAccount, startDate, firstFullDay.atStartOfDay()));
+            }
+            totals.addAll(merchantDailyRollupRepository.sumByStatus(merchantId, firstFullDay, lastFullDay));
+            LocalDateTime tailStart = lastFullDay.plusDays(1).atStartOfDay();
+            if (!endDate.isBefore(tailStart)) {
+                totals.addAll(ledgerEntryRepository.sumMerchantCreditsByStatusThrough(merchantAccount, tailStart, endDate));
+            }
+        }
 
-        List<LedgerEntry> settledTransactions = ledgerEntryRepository
-                .findByAccountNumberAndEntryTypeAndCreatedAtBetween(
-                        merchantAccount, "CREDIT", startDate, endDate);
-
-
-        List<Long> paymentIntentIds = settledTransactions.stream()
-                .map(LedgerEntry::getPaymentIntentId)
-                .collect(Collectors.toList());
-
-
-        List<RailTransfer> railTransfers = railTransferRepository
-                .findByPaymentIntentIdIn(paymentIntentIds);
-
-        Map<String, Long> statusCount = railTransfers.stream()
-                .collect(Collectors.groupingBy(rt -> rt.getStatus().name(), Collectors.counting()));
-
-        List<PaymentIntent> paymentIntents = paymentIntentRepository
-                .findAllById(paymentIntentIds);
-
-        BigDecimal totalGrossAmount = paymentIntents.stream()
-                .map(PaymentIntent::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalCommission = calculateTotalCommission(paymentIntentIds);
+        long totalTransactions = 0;
+        BigDecimal totalGrossAmount = BigDecimal.ZERO;
+        BigDecimal totalCommission = BigDecimal.ZERO;
+        Map<String, Long> statusCount = new HashMap<>();
+        for (MerchantStatusTotalsDTO statusTotals : totals) {
+            totalTransactions += statusTotals.getCount();
+            totalGrossAmount = totalGrossAmount.add(statusTotals.getGrossAmount());
+            totalCommission = totalCommission.add(statusTotals.getCommissionAmount());
+            // Payments without a rail transfer count towards the totals but have no status
+            if (statusTotals.getStatus() != null && !UNKNOWN_STATUS.equals(statusTotals.getStatus())
+                    && statusTotals.getCount() > 0) {
+                statusCount.merge(statusTotals.getStatus(), statusTotals.getCount(), Long::sum);
+            }
+        }
 
         BigDecimal totalNetAmount = totalGrossAmount.subtract(totalCommission);
 
@@ -135,31 +131,11 @@ public class TransactionQueryService {
                 .merchantId(merchantId)
                 .periodStart(startDate)
                 .periodEnd(endDate)
-                .totalTransactions(settledTransactions.size())
+                .totalTransactions((int) totalTransactions)
                 .totalAmount(totalGrossAmount)
                 .totalNetAmount(totalNetAmount)
                 .totalCommission(totalCommission)
                 .statusBreakdown(statusCount)
                 .build();
     }
-
-    private BigDecimal calculateTotalAmount(List<MerchantTransactionDTO> transactions) {
-        return transactions.stream()
-                .map(MerchantTransactionDTO::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-
-    private BigDecimal calculateTotalCommission(List<Long> paymentIntentIds) {
-        if (paymentIntentIds.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
-        List<TransactionCommission> commissions = transactionCommissionRepository
-                .findByPaymentIntentIdIn(paymentIntentIds);
-
-        return commissions.stream()
-                .map(TransactionCommission::getCommissionAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.roshansutihar.paymentscore.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.enums.PaymentStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of live PENDING payment intents keyed by session id. Entries expire at the
+ * intent's own expiry time, or after app.session-cache.max-age-seconds if sooner, which bounds
+ * how stale a status read can be when another node completes the payment. Callers always get
+ * a private copy, so cached instances are never mutated.
+ */
+@Component
+@Slf4j
+public class PaymentSessionCache {
+
+    private final Cache<String, PaymentIntent> cache;
+    private final long maxAgeNanos;
+
+    public PaymentSessionCache(MeterRegistry meterRegistry,
+                               @Value("${app.session-cache.max-size:50000}") long maxSize,
+                               @Value("${app.session-cache.max-age-seconds:5}") long maxAgeSeconds) {
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, PaymentIntent>() {
+                    @Override
+                    public long expireAfterCreate(String sessionId, PaymentIntent paymentIntent, long currentTime) {
+                        return timeToLive(paymentIntent);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String sessionId, PaymentIntent paymentIntent,
+                                                  long currentTime, long currentDuration) {
+                        return timeToLive(paymentIntent);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String sessionId, PaymentIntent paymentIntent,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "payment.sessions");
+    }
+
+    public Optional<PaymentIntent> get(String sessionId) {
+        return Optional.ofNullable(cache.getIfPresent(sessionId)).map(PaymentSessionCache::copyOf);
+    }
+
+    // Only live PENDING intents are cached; inside a transaction the entry appears after commit
+    public void put(PaymentIntent paymentIntent) {
+        if (paymentIntent.getStatus() != PaymentStatus.PENDING || paymentIntent.isExpired()) {
+            return;
+        }
+        PaymentIntent snapshot = copyOf(paymentIntent);
+        afterCommit(() -> cache.put(snapshot.getSessionId(), snapshot));
+    }
+
+    // Evicts now and again after commit, so concurrent readers cannot re-cache the old state
+    public void evict(String sessionId) {
+        cache.invalidate(sessionId);
+        afterCommit(() -> cache.invalidate(sessionId));
+    }
+
+    private long timeToLive(PaymentIntent paymentIntent) {
+        long untilExpiry = Duration.between(LocalDateTime.now(), paymentIntent.getExpiryTime()).toNanos();
+        return Math.max(0, Math.min(untilExpiry, maxAgeNanos));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static PaymentIntent copyOf(PaymentIntent source) {
+        PaymentIntent copy = new PaymentIntent();
+        copy.setId(source.getId());
+        copy.setMerchantId(source.getMerchantId());
+        copy.setTerminalId(source.getTerminalId());
+        copy.setSessionId(source.getSessionId());
+        copy.setAmount(source.getAmount());
+        copy.setCurrency(source.getCurrency());
+        copy.setStatus(source.getStatus());
+        copy.setExpiryTime(source.getExpiryTime());
+        copy.setTransactionRef(source.getTransactionRef());
+        copy.setCallbackUrl(source.getCallbackUrl());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
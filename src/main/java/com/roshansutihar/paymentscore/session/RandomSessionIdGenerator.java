@@ -0,0 +1,17 @@
+package com.roshansutihar.paymentscore.session;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// Original scheme: 24 random hex characters, scattered across the session_id index
+@Component
+@ConditionalOnProperty(name = "app.session-id.strategy", havingValue = "random")
+public class RandomSessionIdGenerator implements SessionIdGenerator {
+
+    @Override
+    public String nextSessionId() {
+        return PREFIX + UUID.randomUUID().toString().replace("-", "").substring(0, 24).toUpperCase();
+    }
+}
@@ -0,0 +1,8 @@
+package com.roshansutihar.paymentscore.session;
+
+public interface SessionIdGenerator {
+
+    String PREFIX = "SESS_";
+
+    String nextSessionId();
+}
@@ -0,0 +1,76 @@
+package com.roshansutihar.paymentscore.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ULID-style session ids: 48-bit epoch millis, 10-bit node id and 70 random bits, written as
+ * 26 Crockford base32 characters straight into a char buffer. The time prefix keeps inserts at
+ * the right edge of the session_id index; the random tail keeps ids unguessable.
+ */
+@Component
+@ConditionalOnProperty(name = "app.session-id.strategy", havingValue = "time-ordered", matchIfMissing = true)
+@Slf4j
+public class TimeOrderedSessionIdGenerator implements SessionIdGenerator {
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 26;
+    private static final int NODE_BITS = 10;
+    private static final int NODE_MASK = (1 << NODE_BITS) - 1;
+
+    private final int nodeId;
+    private final SecureRandom[] randoms;
+    private final ThreadLocal<SecureRandom> threadRandom;
+
+    public TimeOrderedSessionIdGenerator(@Value("${app.session-id.node-id:-1}") int configuredNodeId) {
+        this.nodeId = configuredNodeId >= 0 ? configuredNodeId & NODE_MASK : deriveNodeId();
+
+        // Striped generators avoid contending on a single SecureRandom like UUID.randomUUID() does
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) << 1;
+        this.randoms = new SecureRandom[stripes];
+        for (int i = 0; i < stripes; i++) {
+            randoms[i] = new SecureRandom();
+        }
+        // Each thread is pinned to a stripe on first use; cheap enough for virtual threads, unlike one SecureRandom each
+        AtomicInteger nextStripe = new AtomicInteger();
+        int stripeMask = stripes - 1;
+        this.threadRandom = ThreadLocal.withInitial(() -> randoms[nextStripe.getAndIncrement() & stripeMask]);
+
+        log.info("Time-ordered session id generator using node id {}", nodeId);
+    }
+
+    @Override
+    public String nextSessionId() {
+        SecureRandom random = threadRandom.get();
+        long randomHigh = random.nextLong();
+        long randomLow = random.nextLong();
+
+        // 128 bits: [48 time][10 node][6 random] [64 random]
+        long high = (System.currentTimeMillis() << 16) | ((long) nodeId << 6) | (randomHigh & 0x3F);
+        long low = randomLow;
+
+        char[] buffer = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), buffer, 0);
+        for (int i = buffer.length - 1; i >= PREFIX.length(); i--) {
+            buffer[i] = CROCKFORD[(int) (low & 0x1F)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(buffer);
+    }
+
+    private static int deriveNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName().hashCode() & NODE_MASK;
+        } catch (Exception e) {
+            return ThreadLocalRandom.current().nextInt(NODE_MASK + 1);
+        }
+    }
+}
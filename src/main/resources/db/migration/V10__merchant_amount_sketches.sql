@@ -0,0 +1,8 @@
+CREATE TABLE merchant_amount_sketches (
+    merchant_id VARCHAR(100) PRIMARY KEY,
+    relative_accuracy DOUBLE PRECISION NOT NULL,
+    sample_count BIGINT NOT NULL,
+    bucket_counts JSONB NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (merchant_id) REFERENCES merchant_accounts(merchant_id)
+);
@@ -0,0 +1,2 @@
+CREATE INDEX idx_ledger_entries_account_type_created_at_id
+    ON ledger_entries(account_number, entry_type, created_at, id);
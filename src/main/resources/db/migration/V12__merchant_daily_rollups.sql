@@ -0,0 +1,29 @@
+-- Per merchant, day and rail transfer status totals of merchant credits, maintained on payment completion
+CREATE TABLE merchant_daily_rollups (
+    merchant_id VARCHAR(100) NOT NULL,
+    rollup_date DATE NOT NULL,
+    transfer_status VARCHAR(20) NOT NULL,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    gross_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    commission_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    net_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (merchant_id, rollup_date, transfer_status)
+);
+
+
+INSERT INTO merchant_daily_rollups (merchant_id, rollup_date, transfer_status, transaction_count,
+                                    gross_amount, commission_amount, net_amount)
+SELECT SUBSTRING(le.account_number FROM 10),
+       CAST(le.created_at AS DATE),
+       COALESCE(rt.status, 'UNKNOWN'),
+       COUNT(*),
+       SUM(COALESCE(pi.amount, le.amount)),
+       SUM(COALESCE(tc.commission_amount, 0)),
+       SUM(le.amount)
+FROM ledger_entries le
+LEFT JOIN payment_intents pi ON pi.id = le.payment_intent_id
+LEFT JOIN transaction_commissions tc ON tc.payment_intent_id = le.payment_intent_id
+LEFT JOIN rail_transfers rt ON rt.payment_intent_id = le.payment_intent_id
+WHERE le.account_number LIKE 'MERCHANT\_%' AND le.entry_type = 'CREDIT'
+GROUP BY 1, 2, 3;
@@ -0,0 +1,49 @@
+-- merchant_settlements may already exist from schema auto-update
+CREATE TABLE IF NOT EXISTS merchant_settlements (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id VARCHAR(100) NOT NULL,
+    settlement_reference VARCHAR(150) NOT NULL UNIQUE,
+    total_amount DECIMAL(18,2) NOT NULL,
+    commission_amount DECIMAL(18,2) NOT NULL,
+    net_amount DECIMAL(18,2) NOT NULL,
+    status VARCHAR(30) NOT NULL,
+    settlement_date DATE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE merchant_settlements
+    ADD COLUMN IF NOT EXISTS transaction_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS period_from TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS period_to TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS settled_at TIMESTAMP;
+
+-- A merchant has at most one settlement waiting for the bank
+CREATE UNIQUE INDEX IF NOT EXISTS idx_merchant_settlements_open
+    ON merchant_settlements(merchant_id) WHERE status = 'PENDING_SETTLEMENT';
+CREATE INDEX IF NOT EXISTS idx_merchant_settlements_merchant_created_at
+    ON merchant_settlements(merchant_id, created_at);
+
+
+-- Snapshot of each settled transaction; a rail transfer belongs to at most one settlement
+CREATE TABLE merchant_settlement_items (
+    id BIGSERIAL PRIMARY KEY,
+    settlement_id BIGINT NOT NULL,
+    rail_transfer_id BIGINT NOT NULL UNIQUE,
+    payment_intent_id BIGINT NOT NULL,
+    transaction_ref VARCHAR(100),
+    session_id VARCHAR(100),
+    amount DECIMAL(15,2) NOT NULL,
+    commission_amount DECIMAL(15,2) NOT NULL,
+    net_amount DECIMAL(15,2) NOT NULL,
+    currency VARCHAR(10),
+    transfer_status VARCHAR(20) NOT NULL,
+    transaction_created_at TIMESTAMP NOT NULL,
+    transfer_settlement_date TIMESTAMP,
+    FOREIGN KEY (settlement_id) REFERENCES merchant_settlements(id),
+    FOREIGN KEY (rail_transfer_id) REFERENCES rail_transfers(id),
+    FOREIGN KEY (payment_intent_id) REFERENCES payment_intents(id)
+);
+
+CREATE INDEX idx_merchant_settlement_items_settlement ON merchant_settlement_items(settlement_id);
+
+ALTER SEQUENCE merchant_settlement_items_id_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- Hibernate's pooled optimizer reserves 50 ids per nextval, so the BIGSERIAL sequences must step by 50.
+-- Column defaults still use nextval, so plain SQL inserts keep working alongside JPA.
+ALTER SEQUENCE payment_intents_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payment_events_id_seq INCREMENT BY 50;
+ALTER SEQUENCE rail_transfers_id_seq INCREMENT BY 50;
+ALTER SEQUENCE fraud_checks_id_seq INCREMENT BY 50;
+ALTER SEQUENCE ledger_entries_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transaction_commissions_id_seq INCREMENT BY 50;
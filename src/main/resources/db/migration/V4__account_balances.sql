@@ -0,0 +1,12 @@
+CREATE TABLE account_balances (
+    account_number VARCHAR(50) PRIMARY KEY,
+    balance DECIMAL(15,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+
+INSERT INTO account_balances (account_number, balance)
+SELECT account_number,
+       SUM(CASE WHEN entry_type = 'CREDIT' THEN amount ELSE -amount END)
+FROM ledger_entries
+GROUP BY account_number;
@@ -0,0 +1,4 @@
+-- Hot accounts spread their balance over several rows (shards); the logical balance is their sum.
+ALTER TABLE account_balances ADD COLUMN shard INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE account_balances DROP CONSTRAINT account_balances_pkey;
+ALTER TABLE account_balances ADD PRIMARY KEY (account_number, shard);
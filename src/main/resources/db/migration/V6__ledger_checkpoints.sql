@@ -0,0 +1,14 @@
+CREATE TABLE ledger_checkpoints (
+    id BIGSERIAL PRIMARY KEY,
+    account_number VARCHAR(50) NOT NULL,
+    as_of_entry_id BIGINT NOT NULL,
+    as_of_time TIMESTAMP NOT NULL,
+    balance DECIMAL(15,2) NOT NULL,
+    entry_count BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (account_number, as_of_time)
+);
+
+
+CREATE INDEX idx_ledger_entries_account_created_at ON ledger_entries(account_number, created_at);
+CREATE INDEX idx_ledger_entries_created_at ON ledger_entries(created_at);
@@ -0,0 +1 @@
+CREATE INDEX idx_payment_intents_merchant_created_at ON payment_intents(merchant_id, created_at);
@@ -0,0 +1,3 @@
+CREATE INDEX idx_payment_intents_completed_merchant_amount
+    ON payment_intents(merchant_id, amount, created_at)
+    WHERE status = 'COMPLETED';
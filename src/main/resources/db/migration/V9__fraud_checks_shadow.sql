@@ -0,0 +1,3 @@
+ALTER TABLE fraud_checks ADD COLUMN shadow BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX idx_fraud_checks_payment_intent_shadow ON fraud_checks(payment_intent_id, shadow);
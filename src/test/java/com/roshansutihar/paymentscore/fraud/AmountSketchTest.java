@@ -0,0 +1,66 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AmountSketchTest {
+
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    void quantilesStayWithinTheRelativeAccuracy() {
+        AmountSketch sketch = new AmountSketch(ACCURACY);
+        Random random = new Random(42);
+        double[] values = new double[20_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal spread from cents to thousands, like card amounts
+            values[i] = Math.max(0.01, Math.round(Math.exp(3 + 1.5 * random.nextGaussian()) * 100) / 100.0);
+            sketch.add(BigDecimal.valueOf(values[i]));
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[]{0.5, 0.9, 0.95, 0.99}) {
+            double exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            double estimate = sketch.quantile(quantile).doubleValue();
+            assertThat(estimate).isCloseTo(exact, within(exact * ACCURACY * 1.0001));
+        }
+    }
+
+    @Test
+    void emptySketchReturnsZero() {
+        assertThat(new AmountSketch(ACCURACY).quantile(0.99)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void countsEveryValueIncludingOutOfRangeOnes() {
+        AmountSketch sketch = new AmountSketch(ACCURACY);
+        sketch.add(new BigDecimal("0.001"));
+        sketch.add(new BigDecimal("5000000000"));
+        sketch.add(new BigDecimal("25.00"));
+
+        assertThat(sketch.count()).isEqualTo(3);
+        assertThat(sketch.quantile(0.0).doubleValue()).isCloseTo(0.01, within(0.01 * ACCURACY * 1.0001));
+        assertThat(sketch.quantile(1.0).doubleValue()).isCloseTo(1_000_000_000d, within(1_000_000_000d * ACCURACY * 1.0001));
+    }
+
+    @Test
+    void restoringBucketsReproducesTheSameQuantiles() {
+        AmountSketch original = new AmountSketch(ACCURACY);
+        for (int i = 1; i <= 500; i++) {
+            original.add(BigDecimal.valueOf(i * 1.37));
+        }
+
+        AmountSketch restored = new AmountSketch(ACCURACY);
+        original.nonEmptyBuckets().forEach((index, count) -> restored.addToBucket(Integer.parseInt(index), count));
+
+        assertThat(restored.count()).isEqualTo(original.count());
+        assertThat(restored.quantile(0.95)).isEqualByComparingTo(original.quantile(0.95));
+        assertThat(restored.quantile(0.99)).isEqualByComparingTo(original.quantile(0.99));
+    }
+}
@@ -0,0 +1,55 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedKeyAsAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("M1|" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("M1|" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("M1|" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("M2|" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Twice the target leaves room for hash variance without hiding a sizing bug
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertThat(filter.mightContain("M1|12.5")).isFalse();
+    }
+
+    @Test
+    void sizeFollowsExpectedInsertionsAndProbability() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2 is about 9.6 bits per key at 1%
+        assertThat(filter.sizeInBytes()).isBetween(119_000L, 121_000L);
+        assertThat(new BloomFilter(100_000, 0.001).sizeInBytes()).isGreaterThan(filter.sizeInBytes());
+    }
+}
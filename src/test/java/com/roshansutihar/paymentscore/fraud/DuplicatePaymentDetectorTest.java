@@ -0,0 +1,80 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.enums.PaymentStatus;
+import com.roshansutihar.paymentscore.repository.PaymentIntentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DuplicatePaymentDetectorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 12, 0);
+    private static final BigDecimal AMOUNT = new BigDecimal("19.99");
+
+    private final PaymentIntentRepository paymentIntentRepository = mock(PaymentIntentRepository.class);
+
+    @Test
+    void filterMissIssuesNoQueryByDefault() {
+        DuplicatePaymentDetector detector = detector(false);
+        detector.recordCompleted(completed("M1", new BigDecimal("5.00"), NOW.minusMinutes(2)));
+
+        assertThat(detector.isRecentDuplicate("M1", "T1", AMOUNT, NOW)).isFalse();
+        verifyNoInteractions(paymentIntentRepository);
+    }
+
+    @Test
+    void filterMissIsConfirmedWhenConfigured() {
+        DuplicatePaymentDetector detector = detector(true);
+        when(paymentIntentRepository.existsByMerchantIdAndAmountAndStatusAndCreatedAtGreaterThanEqual(
+                eq("M1"), eq(AMOUNT), eq(PaymentStatus.COMPLETED), any())).thenReturn(true);
+
+        // Completed on another node, so this node's filter has never seen it
+        assertThat(detector.isRecentDuplicate("M1", "T1", AMOUNT, NOW)).isTrue();
+    }
+
+    @Test
+    void filterHitIsConfirmedAgainstTheDatabase() {
+        DuplicatePaymentDetector detector = detector(false);
+        detector.recordCompleted(completed("M1", AMOUNT, NOW.minusMinutes(2)));
+
+        assertThat(detector.isRecentDuplicate("M1", "T1", AMOUNT, NOW)).isFalse();
+        verify(paymentIntentRepository).existsByMerchantIdAndAmountAndStatusAndCreatedAtGreaterThanEqual(
+                "M1", AMOUNT, PaymentStatus.COMPLETED, NOW.minusMinutes(10));
+    }
+
+    @Test
+    void completionsOutsideTheWindowAreForgotten() {
+        DuplicatePaymentDetector detector = detector(false);
+        detector.recordCompleted(completed("M1", AMOUNT, NOW.minusMinutes(30)));
+
+        assertThat(detector.isRecentDuplicate("M1", "T1", AMOUNT, NOW)).isFalse();
+        verify(paymentIntentRepository, never()).existsByMerchantIdAndAmountAndStatusAndCreatedAtGreaterThanEqual(
+                any(), any(), any(), any());
+    }
+
+    private DuplicatePaymentDetector detector(boolean confirmMisses) {
+        return new DuplicatePaymentDetector(paymentIntentRepository, new SimpleMeterRegistry(),
+                10, 10, 1_000, 0.01, false, confirmMisses);
+    }
+
+    private static PaymentIntent completed(String merchantId, BigDecimal amount, LocalDateTime createdAt) {
+        PaymentIntent paymentIntent = new PaymentIntent();
+        paymentIntent.setMerchantId(merchantId);
+        paymentIntent.setTerminalId("T1");
+        paymentIntent.setAmount(amount);
+        paymentIntent.setCreatedAt(createdAt);
+        return paymentIntent;
+    }
+}
@@ -0,0 +1,133 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudRuleEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FraudRuleEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void fullQueueRunsTheRuleOnTheCallingThread() {
+        CountDownLatch callerRan = new CountDownLatch(1);
+        String caller = Thread.currentThread().getName();
+        String[] thirdRuleThread = new String[1];
+
+        // One worker and one queue slot: the first rule holds the worker, the second waits, the third is rejected
+        engine = engine(1, 1, List.of(
+                rule("BLOCKING", context -> {
+                    await(callerRan);
+                    return FraudRuleOutcome.hit("BLOCKING", 10);
+                }),
+                rule("QUEUED", context -> FraudRuleOutcome.hit("QUEUED", 10)),
+                rule("OVERFLOW", context -> {
+                    thirdRuleThread[0] = Thread.currentThread().getName();
+                    callerRan.countDown();
+                    return FraudRuleOutcome.hit("OVERFLOW", 10);
+                })));
+
+        FraudEvaluation evaluation = engine.evaluate(context());
+
+        assertThat(thirdRuleThread[0]).isEqualTo(caller);
+        assertThat(evaluation.getRiskScore()).isEqualTo(30);
+        assertThat(evaluation.getTriggeredRules()).containsExactlyInAnyOrder("BLOCKING", "QUEUED", "OVERFLOW");
+        assertThat(meterRegistry.counter("fraud.rule.caller_runs").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void expensiveRulesRunOnThePoolWhenItHasRoom() {
+        engine = engine(4, 16, List.of(
+                rule("FIRST", context -> FraudRuleOutcome.hit("FIRST", 20)),
+                rule("SECOND", context -> FraudRuleOutcome.pass())));
+
+        FraudEvaluation evaluation = engine.evaluate(context());
+
+        assertThat(evaluation.getRiskScore()).isEqualTo(20);
+        assertThat(evaluation.getTriggeredRules()).containsExactly("FIRST");
+        assertThat(meterRegistry.counter("fraud.rule.caller_runs").count()).isZero();
+    }
+
+    @Test
+    void expensiveRulesRunOnTheCallerInsideATransaction() {
+        String caller = Thread.currentThread().getName();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        engine = engine(4, 16, List.of(
+                rule("FIRST", context -> {
+                    threads.add(Thread.currentThread().getName());
+                    return FraudRuleOutcome.hit("FIRST", 20);
+                }),
+                rule("SECOND", context -> {
+                    threads.add(Thread.currentThread().getName());
+                    return FraudRuleOutcome.pass();
+                })));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            FraudEvaluation evaluation = engine.evaluate(context());
+
+            assertThat(evaluation.getRiskScore()).isEqualTo(20);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertThat(threads).containsExactly(caller, caller);
+    }
+
+    private FraudRuleEngine engine(int parallelism, int queueCapacity, List<FraudRule> rules) {
+        return new FraudRuleEngine(rules, new FraudMetrics(meterRegistry), new MockEnvironment(),
+                70, parallelism, queueCapacity);
+    }
+
+    private static FraudContext context() {
+        PaymentIntent paymentIntent = new PaymentIntent();
+        paymentIntent.setMerchantId("M1");
+        return FraudContext.forInitiation(paymentIntent, LocalDateTime.now(), 1);
+    }
+
+    private static FraudRule rule(String name, Function<FraudContext, FraudRuleOutcome> evaluation) {
+        return new FraudRule() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Cost getDefaultCost() {
+                return Cost.EXPENSIVE;
+            }
+
+            @Override
+            public FraudRuleOutcome evaluate(FraudContext context) {
+                return evaluation.apply(context);
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
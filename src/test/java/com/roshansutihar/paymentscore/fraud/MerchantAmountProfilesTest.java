@@ -0,0 +1,126 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import com.roshansutihar.paymentscore.entity.MerchantAmountSketch;
+import com.roshansutihar.paymentscore.repository.MerchantAmountSketchRepository;
+import com.roshansutihar.paymentscore.repository.PaymentIntentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes share one stored sketch per merchant. The repository mock merges bucket counts
+ * additively, as the upsert does.
+ */
+class MerchantAmountProfilesTest {
+
+    private static final double ACCURACY = 0.01;
+
+    private final Map<String, Map<String, Long>> stored = new HashMap<>();
+    private final MerchantAmountSketchRepository sketchRepository = mock(MerchantAmountSketchRepository.class);
+    private final PaymentIntentRepository paymentIntentRepository = mock(PaymentIntentRepository.class);
+
+    MerchantAmountProfilesTest() {
+        when(sketchRepository.addBuckets(anyString(), anyDouble(), any(), any())).thenAnswer(invocation -> {
+            Map<String, Long> buckets = stored.computeIfAbsent(invocation.getArgument(0), id -> new HashMap<>());
+            Map<String, Long> added = invocation.getArgument(2);
+            added.forEach((index, count) -> buckets.merge(index, count, Long::sum));
+            return Map.copyOf(buckets);
+        });
+        when(sketchRepository.findAll()).thenAnswer(invocation -> stored.entrySet().stream()
+                .map(entry -> storedSketch(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    @Test
+    void nodesAddToTheStoredSketchInsteadOfOverwritingIt() {
+        stored.put("M1", new HashMap<>());
+        MerchantAmountProfiles nodeA = node();
+        MerchantAmountProfiles nodeB = node();
+
+        record(nodeA, 3);
+        nodeA.persist();
+        record(nodeB, 2);
+        nodeB.persist();
+        record(nodeA, 1);
+        nodeA.persist();
+
+        assertThat(storedSamples("M1")).isEqualTo(6);
+        // Node A picked up node B's completions from the merged row
+        assertThat(nodeA.thresholds("M1")).hasValueSatisfying(thresholds ->
+                assertThat(thresholds.getSamples()).isEqualTo(6));
+    }
+
+    @Test
+    void persistWritesOnlyCompletionsSinceTheLastWrite() {
+        stored.put("M1", new HashMap<>());
+        MerchantAmountProfiles node = node();
+
+        record(node, 4);
+        node.persist();
+        node.persist();
+        record(node, 1);
+        node.persist();
+
+        assertThat(storedSamples("M1")).isEqualTo(5);
+    }
+
+    @Test
+    void completionsRecordedBeforeTheLoadAreStillPersisted() {
+        MerchantAmountProfiles node = profiles();
+        record(node, 2);
+
+        stored.put("M1", new HashMap<>(Map.of(Integer.toString(bucket("25.00")), 10L)));
+        node.load();
+        node.persist();
+
+        assertThat(storedSamples("M1")).isEqualTo(12);
+    }
+
+    private MerchantAmountProfiles node() {
+        MerchantAmountProfiles profiles = profiles();
+        profiles.load();
+        return profiles;
+    }
+
+    private MerchantAmountProfiles profiles() {
+        MerchantAmountProfiles profiles = new MerchantAmountProfiles(sketchRepository, paymentIntentRepository);
+        ReflectionTestUtils.setField(profiles, "relativeAccuracy", ACCURACY);
+        ReflectionTestUtils.setField(profiles, "minSamples", 1L);
+        ReflectionTestUtils.setField(profiles, "refreshEvery", 64L);
+        ReflectionTestUtils.setField(profiles, "bootstrapDays", 90);
+        return profiles;
+    }
+
+    private static void record(MerchantAmountProfiles profiles, int completions) {
+        for (int i = 0; i < completions; i++) {
+            profiles.record("M1", new BigDecimal("25.00"));
+        }
+    }
+
+    private long storedSamples(String merchantId) {
+        return stored.get(merchantId).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static int bucket(String amount) {
+        return AmountSketch.bucketIndex(new AmountSketch(ACCURACY).getLnGamma(), Double.parseDouble(amount));
+    }
+
+    private static MerchantAmountSketch storedSketch(String merchantId, Map<String, Long> buckets) {
+        MerchantAmountSketch sketch = new MerchantAmountSketch();
+        sketch.setMerchantId(merchantId);
+        sketch.setRelativeAccuracy(ACCURACY);
+        sketch.setSampleCount(buckets.values().stream().mapToLong(Long::longValue).sum());
+        sketch.setBucketCounts(new HashMap<>(buckets));
+        return sketch;
+    }
+}
@@ -0,0 +1,47 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentVelocitySketchesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 4, 1, 9, 0);
+
+    private final PaymentVelocitySketches sketches = new PaymentVelocitySketches(
+            new SimpleMeterRegistry(), 3600, 3600, 12, 4096, 4);
+
+    @Test
+    void terminalsAreCountedPerMerchant() {
+        for (int i = 0; i < 3; i++) {
+            sketches.recordTerminal("M1", "T1", NOW.minusMinutes(i));
+        }
+        sketches.recordTerminal("M2", "T1", NOW);
+
+        assertThat(sketches.terminalCount("M1", "T1", NOW)).isGreaterThanOrEqualTo(3);
+        assertThat(sketches.terminalCount("M2", "T1", NOW)).isGreaterThanOrEqualTo(1);
+        // Exact here: two keys in 4096 columns over four rows practically never collide
+        assertThat(sketches.terminalCount("M1", "T1", NOW)).isEqualTo(3);
+        assertThat(sketches.terminalCount("M2", "T1", NOW)).isEqualTo(1);
+    }
+
+    @Test
+    void payerCountsLeaveTheWindow() {
+        sketches.recordPayer("ACC-1", NOW.minusMinutes(90));
+        sketches.recordPayer("ACC-1", NOW.minusMinutes(10));
+        sketches.recordPayer("ACC-1", NOW);
+
+        assertThat(sketches.payerCount("ACC-1", NOW)).isEqualTo(2);
+        assertThat(sketches.payerCount("ACC-2", NOW)).isZero();
+    }
+
+    @Test
+    void terminalAndPayerDimensionsAreIndependent() {
+        sketches.recordPayer("M1|T1", NOW);
+
+        assertThat(sketches.terminalCount("M1", "T1", NOW)).isZero();
+    }
+}
@@ -0,0 +1,100 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    // Aligned to a minute so bucket boundaries fall on whole multiples of the bucket width
+    private static final long START = 1_700_000_400L;
+
+    @Test
+    void countsEveryEventInsideTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(3600, 60);
+
+        for (int second = 0; second < 3600; second += 10) {
+            counter.increment(START + second);
+        }
+
+        assertThat(counter.count(START + 3599)).isEqualTo(360);
+    }
+
+    @Test
+    void neverUndercountsAtBucketBoundaries() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(600, 10);
+        long bucketSeconds = counter.getBucketSeconds();
+
+        // Events in the current bucket and the oldest bucket still in the window
+        counter.increment(START);
+        counter.increment(START + bucketSeconds - 1);
+        counter.increment(START + 9 * bucketSeconds);
+
+        for (long now = START + 9 * bucketSeconds; now < START + 10 * bucketSeconds; now++) {
+            assertThat(counter.count(now)).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void bucketsExpireOnceTheyLeaveTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(600, 10);
+        long bucketSeconds = counter.getBucketSeconds();
+
+        counter.add(START, 5);
+        counter.add(START + bucketSeconds, 2);
+
+        assertThat(counter.count(START + 10 * bucketSeconds)).isEqualTo(2);
+        assertThat(counter.count(START + 11 * bucketSeconds)).isZero();
+    }
+
+    @Test
+    void reusedSlotStartsFromZero() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(600, 10);
+        long bucketSeconds = counter.getBucketSeconds();
+
+        counter.add(START, 7);
+        counter.increment(START + 10 * bucketSeconds);
+
+        assertThat(counter.count(START + 10 * bucketSeconds)).isEqualTo(1);
+    }
+
+    @Test
+    void lateEventForAReusedSlotIsDropped() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(600, 10);
+        long bucketSeconds = counter.getBucketSeconds();
+
+        counter.increment(START + 10 * bucketSeconds);
+        counter.increment(START);
+
+        assertThat(counter.count(START + 10 * bucketSeconds)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(3600, 60);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        counter.increment(START + (i % 120));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(counter.count(START + 119)).isEqualTo(80_000);
+    }
+}
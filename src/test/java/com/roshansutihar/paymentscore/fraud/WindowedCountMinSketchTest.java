@@ -0,0 +1,81 @@
+package com.roshansutihar.paymentscore.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowedCountMinSketchTest {
+
+    // Aligned to the 300-second buckets used below
+    private static final long START = 1_700_000_100L;
+
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        int width = 1024;
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(3600, 12, width, 4);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+
+        int events = 50_000;
+        for (int i = 0; i < events; i++) {
+            // Skewed keys: a few hot terminals and a long tail
+            String key = "T" + (random.nextInt(10) < 3 ? random.nextInt(5) : random.nextInt(20_000));
+            sketch.add(key, START + random.nextInt(3600));
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        long now = START + 3599;
+        double bound = Math.E / width * events;
+        int beyondBound = 0;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey(), now);
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() > bound) {
+                beyondBound++;
+            }
+        }
+        // Each key exceeds the bound with probability at most e^-4, under 2%
+        assertThat((double) beyondBound / exact.size()).isLessThan(0.02);
+    }
+
+    @Test
+    void unseenKeyHasZeroEstimateInAnEmptySketch() {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(3600, 12, 256, 4);
+
+        assertThat(sketch.estimate("T1", START)).isZero();
+    }
+
+    @Test
+    void bucketsExpireOnceTheyLeaveTheWindow() {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(3600, 12, 256, 4);
+        for (int i = 0; i < 5; i++) {
+            sketch.add("T1", START);
+        }
+        sketch.add("T1", START + 1800);
+
+        assertThat(sketch.estimate("T1", START + 3600)).isEqualTo(6);
+        assertThat(sketch.estimate("T1", START + 3600 + 300)).isEqualTo(1);
+        assertThat(sketch.estimate("T1", START + 1800 + 3600 + 300)).isZero();
+    }
+
+    @Test
+    void lateEventForAReusedSlotIsDropped() {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(3600, 12, 256, 4);
+        // 13 slots of 300 seconds: START + 3900 lands in START's slot
+        sketch.add("T1", START + 3900);
+        sketch.add("T1", START);
+
+        assertThat(sketch.estimate("T1", START + 3900)).isEqualTo(1);
+    }
+
+    @Test
+    void sizeIsFixedByTheDimensions() {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(3600, 12, 4096, 4);
+
+        assertThat(sketch.sizeInBytes()).isEqualTo(13L * 4096 * 4 * Long.BYTES);
+    }
+}
@@ -0,0 +1,79 @@
+package com.roshansutihar.paymentscore.fraud.backtest;
+
+import com.roshansutihar.paymentscore.fraud.AmountSketch;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ReplayFraudStateTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private final ReplayFraudState state = new ReplayFraudState(BacktestRuleSet.builder()
+            .amountMinSamples(3)
+            .amountRelativeAccuracy(0.01)
+            .velocityWindowSeconds(3600)
+            .velocityBuckets(60)
+            .duplicateWindowMinutes(10)
+            .duplicateIncludeTerminal(true)
+            .terminalVelocityWindowSeconds(3600)
+            .terminalVelocityBuckets(12)
+            .build());
+
+    @Test
+    void countsIntentsPerMerchantAndTerminal() {
+        state.recordCreated("m-1", "t-1", START);
+        state.recordCreated("m-1", "t-1", START.plusMinutes(1));
+        state.recordCreated("m-1", "t-2", START.plusMinutes(2));
+        state.recordCreated("m-2", "t-1", START.plusMinutes(3));
+
+        LocalDateTime now = START.plusMinutes(5);
+        assertThat(state.count("m-1", now)).isEqualTo(3);
+        assertThat(state.terminalCount("m-1", "t-1", now)).isEqualTo(2);
+        assertThat(state.terminalCount("m-1", "t-3", now)).isZero();
+        assertThat(state.count("m-2", now)).isEqualTo(1);
+    }
+
+    @Test
+    void duplicatesExpireWithTheWindow() {
+        state.recordCompleted("m-1", "t-1", new BigDecimal("25.00"), START);
+
+        assertThat(state.isRecentDuplicate("m-1", "t-1", new BigDecimal("25"), START.plusMinutes(5))).isTrue();
+        assertThat(state.isRecentDuplicate("m-1", "t-2", new BigDecimal("25"), START.plusMinutes(5))).isFalse();
+        assertThat(state.isRecentDuplicate("m-1", "t-1", new BigDecimal("25"), START.plusMinutes(11))).isFalse();
+    }
+
+    @Test
+    void amountThresholdsNeedMinimumSamples() {
+        state.recordCompleted("m-1", "t-1", new BigDecimal("10"), START);
+        state.recordCompleted("m-1", "t-1", new BigDecimal("20"), START.plusMinutes(20));
+        assertThat(state.thresholds("m-1")).isEmpty();
+
+        state.recordCompleted("m-1", "t-1", new BigDecimal("30"), START.plusMinutes(40));
+        assertThat(state.thresholds("m-1")).isPresent();
+    }
+
+    @Test
+    void seededAmountHistoryCountsTowardsThresholds() {
+        int bucket = AmountSketch.bucketIndex(state.amountLnGamma(), 40.0);
+        state.addAmountBucket("m-1", bucket, 2);
+        state.recordCompleted("m-1", "t-1", new BigDecimal("40"), START);
+
+        assertThat(state.thresholds("m-1")).hasValueSatisfying(thresholds -> {
+            assertThat(thresholds.getSamples()).isEqualTo(3);
+            assertThat(thresholds.getP95().doubleValue()).isCloseTo(40.0, within(0.4));
+        });
+    }
+
+    @Test
+    void releaseDropsTheMerchantsHistory() {
+        state.recordCreated("m-1", "t-1", START);
+        state.release("m-1");
+
+        assertThat(state.count("m-1", START)).isZero();
+    }
+}
@@ -0,0 +1,89 @@
+package com.roshansutihar.paymentscore.security;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedBodyHttpServletRequestTest {
+
+    @Test
+    void readListenerReadsTheCachedBody() throws IOException {
+        ServletInputStream input = cachedRequest("{\"amount\":10}").getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                byte[] buffer = new byte[4];
+                while (input.isReady() && !input.isFinished()) {
+                    int n = input.read(buffer);
+                    if (n > 0) {
+                        read.write(buffer, 0, n);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertThat(events).containsExactly("data", "done");
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"amount\":10}");
+    }
+
+    @Test
+    void emptyBodyIsReadImmediately() throws IOException {
+        List<String> events = new ArrayList<>();
+
+        cachedRequest("").getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+                events.add("data");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertThat(events).containsExactly("done");
+    }
+
+    @Test
+    void bodyCanBeReadMoreThanOnce() throws IOException {
+        CachedBodyHttpServletRequest request = cachedRequest("payload");
+
+        assertThat(request.getInputStream().readAllBytes()).isEqualTo("payload".getBytes(StandardCharsets.UTF_8));
+        assertThat(request.getReader().readLine()).isEqualTo("payload");
+    }
+
+    private static CachedBodyHttpServletRequest cachedRequest(String body) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/payments");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return new CachedBodyHttpServletRequest(request);
+    }
+}
@@ -0,0 +1,117 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.fraud.DuplicatePaymentDetector;
+import com.roshansutihar.paymentscore.fraud.FraudMetrics;
+import com.roshansutihar.paymentscore.fraud.FraudRuleEngine;
+import com.roshansutihar.paymentscore.fraud.MerchantAmountProfiles;
+import com.roshansutihar.paymentscore.fraud.MerchantVelocityTracker;
+import com.roshansutihar.paymentscore.fraud.PaymentVelocitySketches;
+import com.roshansutihar.paymentscore.fraud.ShadowFraudScorer;
+import com.roshansutihar.paymentscore.repository.FraudCheckRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class FraudDetectionServiceTest {
+
+    private final MerchantVelocityTracker velocityTracker = mock(MerchantVelocityTracker.class);
+    private final PaymentVelocitySketches velocitySketches = mock(PaymentVelocitySketches.class);
+    private final DuplicatePaymentDetector duplicateDetector = mock(DuplicatePaymentDetector.class);
+    private final MerchantAmountProfiles amountProfiles = mock(MerchantAmountProfiles.class);
+
+    private final FraudDetectionService fraudDetectionService = new FraudDetectionService(
+            mock(FraudCheckRepository.class), new ObjectMapper(), mock(FraudRuleEngine.class), mock(FraudMetrics.class),
+            velocityTracker, duplicateDetector, amountProfiles, velocitySketches, mock(ShadowFraudScorer.class));
+
+    private PaymentIntent paymentIntent;
+
+    @BeforeEach
+    void setUp() {
+        paymentIntent = new PaymentIntent();
+        paymentIntent.setMerchantId("M1");
+        paymentIntent.setTerminalId("T1");
+        paymentIntent.setAmount(new BigDecimal("12.50"));
+        paymentIntent.setCreatedAt(LocalDateTime.of(2026, 1, 5, 10, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void intentCreatedIsCountedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.recordPaymentIntentCreated(paymentIntent);
+
+        verify(velocityTracker, never()).record(any(), any());
+        verify(velocitySketches, never()).recordTerminal(any(), any(), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(velocityTracker).record("M1", paymentIntent.getCreatedAt());
+        verify(velocitySketches).recordTerminal("M1", "T1", paymentIntent.getCreatedAt());
+    }
+
+    @Test
+    void intentCreatedIsNotCountedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.recordPaymentIntentCreated(paymentIntent);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(velocityTracker, never()).record(any(), any());
+        verify(velocitySketches, never()).recordTerminal(any(), any(), any());
+    }
+
+    @Test
+    void intentCreatedOutsideATransactionIsCountedImmediately() {
+        fraudDetectionService.recordPaymentIntentCreated(paymentIntent);
+
+        verify(velocityTracker).record("M1", paymentIntent.getCreatedAt());
+        verify(velocitySketches).recordTerminal("M1", "T1", paymentIntent.getCreatedAt());
+    }
+
+    @Test
+    void completionIsRecordedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.recordPaymentCompleted(paymentIntent);
+
+        verify(duplicateDetector, never()).recordCompleted(any());
+        verify(amountProfiles, never()).record(any(), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(duplicateDetector).recordCompleted(paymentIntent);
+        verify(amountProfiles).record("M1", new BigDecimal("12.50"));
+    }
+
+    @Test
+    void rolledBackCompletionIsNotRecorded() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.recordPaymentCompleted(paymentIntent);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(duplicateDetector, never()).recordCompleted(any());
+        verify(amountProfiles, never()).record(any(), any());
+    }
+}
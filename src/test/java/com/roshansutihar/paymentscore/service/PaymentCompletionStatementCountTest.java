@@ -0,0 +1,165 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.enums.PaymentStatus;
+import com.roshansutihar.paymentscore.request.PaymentInitiationRequest;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC round trips of one payment completion by wrapping the application DataSource
+ * with datasource-proxy. A batch counts once, however many rows it carries. Needs a Postgres
+ * database (POSTGRES_URL, POSTGRES_USERNAME, POSTGRES_PASSWORD); the executed statements are
+ * listed in the failure message so a regression can be traced to the call that added it, and the
+ * rows the test creates are deleted afterwards.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "POSTGRES_URL", matches = ".+")
+class PaymentCompletionStatementCountTest {
+
+    // Intent and merchant lookups, 3 balance deltas, commission, rail transfer and ledger insert batches,
+    // the intent update, the rollup upsert and the event batch
+    private static final int MAX_STATEMENTS_PER_COMPLETION = 11;
+
+    @Autowired
+    private PaymentOrchestrationService paymentOrchestrationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    private String merchantId;
+
+    @AfterEach
+    void deleteCreatedRows() {
+        String intents = "(SELECT id FROM payment_intents WHERE merchant_id = ?)";
+        // The commission account is shared, so back out this test's credits instead of deleting it
+        jdbcTemplate.update("UPDATE account_balances SET balance = balance - (SELECT COALESCE(SUM(amount), 0) " +
+                "FROM ledger_entries WHERE account_number = 'SYSTEM_COMMISSION' AND payment_intent_id IN " + intents +
+                ") WHERE account_number = 'SYSTEM_COMMISSION' AND shard = 0", merchantId);
+        jdbcTemplate.update("DELETE FROM account_balances WHERE account_number IN (?, ?)",
+                "MERCHANT_" + merchantId, "PAYER_" + merchantId);
+        for (String table : List.of("payment_events", "ledger_entries", "rail_transfers", "fraud_checks",
+                "transaction_commissions")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE payment_intent_id IN " + intents, merchantId);
+        }
+        for (String table : List.of("merchant_daily_rollups", "merchant_amount_sketches", "payment_intents",
+                "merchant_accounts")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE merchant_id = ?", merchantId);
+        }
+    }
+
+    @Test
+    void completionStaysWithinStatementBudget() {
+        merchantId = "STMT_COUNT_" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO merchant_accounts (merchant_id, store_name, secret_key, status, " +
+                "commission_type, commission_value) VALUES (?, 'Statement count', 'secret', 'ACTIVE', 'PERCENTAGE', 2.5)",
+                merchantId);
+
+        // The first completion pays for sequence pool fetches and cold caches; measure the second
+        complete(merchantId, initiate(merchantId, "WARMUP", "42.00"));
+        // A different amount keeps the duplicate rule out of the measured completion
+        PaymentIntent intent = initiate(merchantId, "MEASURED", "57.00");
+
+        statementRecorder.start();
+        PaymentIntent completed = complete(merchantId, intent);
+        List<String> statements = statementRecorder.stop();
+
+        assertThat(completed.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(statements)
+                .as("%d statements:%n%s", statements.size(), String.join(System.lineSeparator(), statements))
+                .hasSizeLessThanOrEqualTo(MAX_STATEMENTS_PER_COMPLETION);
+    }
+
+    private PaymentIntent initiate(String merchantId, String reference, String amount) {
+        PaymentInitiationRequest request = PaymentInitiationRequest.builder()
+                .terminalId("T1")
+                .amount(new BigDecimal(amount))
+                .transactionRef(reference + "-" + merchantId)
+                .build();
+        return paymentOrchestrationService.initiatePayment(merchantId, request).getPaymentIntent();
+    }
+
+    private PaymentIntent complete(String merchantId, PaymentIntent intent) {
+        return paymentOrchestrationService.processPaymentCompletion(
+                intent.getSessionId(), "PAYER_" + merchantId, merchantId, intent.getAmount(), "011000015");
+    }
+
+    // Records only the measuring thread, so shadow scoring and background writers are not counted
+    static class StatementRecorder implements QueryExecutionListener {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+        private volatile Thread recording;
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (Thread.currentThread() != recording) {
+                return;
+            }
+            String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+            statements.add(execInfo.isBatch() ? "batch(" + execInfo.getBatchSize() + ") " + sql : sql);
+        }
+
+        void start() {
+            statements.clear();
+            recording = Thread.currentThread();
+        }
+
+        List<String> stop() {
+            recording = null;
+            return List.copyOf(statements);
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource(ObjectProvider<StatementRecorder> recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    // Only the primary pool; wrapping the Hikari bean behind it as well would count twice
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name("completion-count")
+                                .listener(recorder.getObject())
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
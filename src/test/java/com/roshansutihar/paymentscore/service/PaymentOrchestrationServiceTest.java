@@ -0,0 +1,143 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.roshansutihar.paymentscore.entity.FraudCheck;
+import com.roshansutihar.paymentscore.entity.MerchantAccount;
+import com.roshansutihar.paymentscore.entity.PaymentIntent;
+import com.roshansutihar.paymentscore.enums.PaymentStatus;
+import com.roshansutihar.paymentscore.enums.RiskLevel;
+import com.roshansutihar.paymentscore.fraud.FraudMetrics;
+import com.roshansutihar.paymentscore.repository.MerchantAccountRepository;
+import com.roshansutihar.paymentscore.repository.PaymentIntentRepository;
+import com.roshansutihar.paymentscore.repository.RailTransferRepository;
+import com.roshansutihar.paymentscore.repository.TransactionCommissionRepository;
+import com.roshansutihar.paymentscore.session.PaymentSessionCache;
+import com.roshansutihar.paymentscore.session.SessionIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentOrchestrationServiceTest {
+
+    private static final String SESSION_ID = "SESS_01HZX";
+
+    @Mock
+    private PaymentIntentRepository paymentIntentRepository;
+    @Mock
+    private MerchantAccountRepository merchantAccountRepository;
+    @Mock
+    private RailTransferRepository railTransferRepository;
+    @Mock
+    private TransactionCommissionRepository transactionCommissionRepository;
+    @Mock
+    private CommissionService commissionService;
+    @Mock
+    private LedgerService ledgerService;
+    @Mock
+    private MerchantDailyRollupService merchantDailyRollupService;
+    @Mock
+    private FraudDetectionService fraudDetectionService;
+    @Mock
+    private FraudMetrics fraudMetrics;
+    @Mock
+    private SessionIdGenerator sessionIdGenerator;
+    @Mock
+    private PaymentSessionCache paymentSessionCache;
+    @Mock
+    private PaymentEventJournal paymentEventJournal;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private PaymentOrchestrationService paymentOrchestrationService;
+
+    private PaymentIntent paymentIntent;
+
+    @BeforeEach
+    void setUp() {
+        paymentIntent = new PaymentIntent();
+        paymentIntent.setId(41L);
+        paymentIntent.setMerchantId("M1");
+        paymentIntent.setTerminalId("T1");
+        paymentIntent.setSessionId(SESSION_ID);
+        paymentIntent.setAmount(new BigDecimal("80.00"));
+        paymentIntent.setStatus(PaymentStatus.PENDING);
+        paymentIntent.setTransactionRef("REF-41");
+        paymentIntent.setExpiryTime(LocalDateTime.now().plusMinutes(10));
+
+        when(paymentIntentRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.of(paymentIntent));
+        when(paymentIntentRepository.save(any(PaymentIntent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void blockedCompletionFailsTheIntentWithoutMovingMoney() {
+        FraudCheck check = completionCheck(85, List.of("PAYER_VELOCITY_HIGH", "DUPLICATE_PAYMENT"));
+        when(fraudDetectionService.scoreCompletion(paymentIntent, "ACC-9")).thenReturn(check);
+        when(fraudDetectionService.shouldBlockTransaction(check)).thenReturn(true);
+
+        PaymentIntent result = paymentOrchestrationService.processPaymentCompletion(
+                SESSION_ID, "ACC-9", "M1", new BigDecimal("80.00"), "011000015");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        verify(paymentSessionCache).evict(SESSION_ID);
+        verify(paymentEventJournal).record(eq(41L), eq("COMPLETION_BLOCKED_BY_FRAUD_SYSTEM"), anyString());
+        verifyNoInteractions(merchantAccountRepository, commissionService, transactionCommissionRepository,
+                railTransferRepository, ledgerService, merchantDailyRollupService);
+        verify(fraudDetectionService, never()).recordPaymentCompleted(any());
+    }
+
+    @Test
+    void allowedCompletionPostsLedgerEntriesAndRecordsTheCompletion() {
+        FraudCheck check = completionCheck(10, List.of());
+        when(fraudDetectionService.scoreCompletion(paymentIntent, "ACC-9")).thenReturn(check);
+        when(fraudDetectionService.shouldBlockTransaction(check)).thenReturn(false);
+
+        MerchantAccount merchant = new MerchantAccount();
+        merchant.setMerchantId("M1");
+        when(merchantAccountRepository.findByMerchantId("M1")).thenReturn(Optional.of(merchant));
+        when(commissionService.calculateCommission(merchant, new BigDecimal("80.00"))).thenReturn(
+                CommissionService.CommissionCalculation.builder()
+                        .transactionAmount(new BigDecimal("80.00"))
+                        .commissionAmount(new BigDecimal("2.00"))
+                        .netAmount(new BigDecimal("78.00"))
+                        .commissionRate(new BigDecimal("2.5"))
+                        .commissionType("PERCENTAGE")
+                        .build());
+
+        PaymentIntent result = paymentOrchestrationService.processPaymentCompletion(
+                SESSION_ID, "ACC-9", "M1", new BigDecimal("80.00"), "011000015");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(ledgerService, times(3)).createLedgerEntry(eq(41L), anyString(), anyString(), any(), anyString(), eq("011000015"));
+        verify(fraudDetectionService).recordPaymentCompleted(paymentIntent);
+        verify(merchantDailyRollupService).recordCompletion("M1", 41L);
+    }
+
+    private FraudCheck completionCheck(int score, List<String> rules) {
+        FraudCheck check = new FraudCheck();
+        check.setPaymentIntent(paymentIntent);
+        check.setRiskScore(score);
+        check.setRiskLevel(RiskLevel.forScore(score));
+        check.setRulesTriggered(rules);
+        return check;
+    }
+}
@@ -0,0 +1,163 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.roshansutihar.paymentscore.entity.MerchantAccount;
+import com.roshansutihar.paymentscore.entity.MerchantSettlement;
+import com.roshansutihar.paymentscore.enums.TransferStatus;
+import com.roshansutihar.paymentscore.repository.MerchantAccountRepository;
+import com.roshansutihar.paymentscore.repository.MerchantDailyRollupRepository;
+import com.roshansutihar.paymentscore.repository.MerchantSettlementItemRepository;
+import com.roshansutihar.paymentscore.repository.MerchantSettlementRepository;
+import com.roshansutihar.paymentscore.repository.RailTransferRepository;
+import com.roshansutihar.paymentscore.request.SettlementMarkRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementServiceTest {
+
+    private static final String REFERENCE = "SETTLE_M1_20260301_120000_abcd1234";
+    private static final LocalDateTime PERIOD_FROM = LocalDateTime.of(2026, 3, 1, 9, 0);
+    private static final LocalDateTime PERIOD_TO = LocalDateTime.of(2026, 3, 1, 17, 0);
+
+    @Mock
+    private MerchantSettlementRepository merchantSettlementRepository;
+    @Mock
+    private MerchantSettlementItemRepository merchantSettlementItemRepository;
+    @Mock
+    private MerchantAccountRepository merchantAccountRepository;
+    @Mock
+    private RailTransferRepository railTransferRepository;
+    @Mock
+    private MerchantDailyRollupRepository merchantDailyRollupRepository;
+
+    @InjectMocks
+    private SettlementService settlementService;
+
+    // A retried request reads the settlement as pending before the first one commits
+    @Test
+    void markingSettledTwiceMovesRollupsOnce() {
+        when(merchantSettlementRepository.findBySettlementReference(REFERENCE))
+                .thenAnswer(invocation -> Optional.of(settlement(SettlementService.STATUS_PENDING)));
+        when(merchantSettlementRepository.updateStatus(eq(1L), eq(SettlementService.STATUS_PENDING),
+                eq(SettlementService.STATUS_SETTLED), any()))
+                .thenReturn(1, 0);
+        when(merchantSettlementRepository.findById(1L))
+                .thenReturn(Optional.of(settlement(SettlementService.STATUS_SETTLED)));
+
+        MerchantSettlement first = settlementService.markSettled(request(0.3));
+        MerchantSettlement second = settlementService.markSettled(request(0.3));
+
+        assertThat(first.getStatus()).isEqualTo(SettlementService.STATUS_SETTLED);
+        assertThat(second.getStatus()).isEqualTo(SettlementService.STATUS_SETTLED);
+        verify(railTransferRepository, times(1)).updateStatusBySettlement(1L, TransferStatus.SETTLED);
+        verify(merchantDailyRollupRepository, times(1)).moveSettlementPayments(
+                "M1", 1L, TransferStatus.ACKNOWLEDGED.name(), TransferStatus.SETTLED.name());
+    }
+
+    @Test
+    void alreadySettledSettlementIsReturnedAsIs() {
+        when(merchantSettlementRepository.findBySettlementReference(REFERENCE))
+                .thenReturn(Optional.of(settlement(SettlementService.STATUS_SETTLED)));
+
+        assertThat(settlementService.markSettled(request(0.3)).getStatus()).isEqualTo(SettlementService.STATUS_SETTLED);
+        verify(merchantDailyRollupRepository, times(0)).moveSettlementPayments(anyString(), any(), anyString(), anyString());
+    }
+
+    @Test
+    void totalsSummedInDoublesMatchTheStoredCents() {
+        when(merchantSettlementRepository.findBySettlementReference(REFERENCE))
+                .thenReturn(Optional.of(settlement(SettlementService.STATUS_PENDING)));
+        when(merchantSettlementRepository.updateStatus(eq(1L), eq(SettlementService.STATUS_PENDING),
+                eq(SettlementService.STATUS_SETTLED), any()))
+                .thenReturn(1);
+        when(merchantSettlementRepository.findById(1L))
+                .thenReturn(Optional.of(settlement(SettlementService.STATUS_SETTLED)));
+
+        assertThat(settlementService.markSettled(request(0.1 + 0.2)).getStatus())
+                .isEqualTo(SettlementService.STATUS_SETTLED);
+    }
+
+    @Test
+    void totalsOffByACentAreRejected() {
+        when(merchantSettlementRepository.findBySettlementReference(REFERENCE))
+                .thenReturn(Optional.of(settlement(SettlementService.STATUS_PENDING)));
+
+        assertThatThrownBy(() -> settlementService.markSettled(request(0.31)))
+                .hasMessageContaining("do not match");
+    }
+
+    @Test
+    void pendingSettlementIsReturnedForARangeThatCoversIt() {
+        when(merchantSettlementRepository.findFirstByMerchantIdAndStatus("M1", SettlementService.STATUS_PENDING))
+                .thenReturn(Optional.of(settlement(SettlementService.STATUS_PENDING)));
+        when(merchantAccountRepository.findByMerchantId("M1")).thenReturn(Optional.of(merchant()));
+
+        assertThat(settlementService.getOrCreatePendingSettlement("M1", PERIOD_FROM.minusDays(1), PERIOD_TO.plusDays(1)))
+                .hasValueSatisfying(response -> assertThat(response.getSettlementId()).isEqualTo(REFERENCE));
+        assertThat(settlementService.getOrCreatePendingSettlement("M1", null, null)).isPresent();
+    }
+
+    // Last week's pending settlement must not answer a request for today
+    @Test
+    void pendingSettlementOutsideTheRequestedRangeIsRejected() {
+        when(merchantSettlementRepository.findFirstByMerchantIdAndStatus("M1", SettlementService.STATUS_PENDING))
+                .thenReturn(Optional.of(settlement(SettlementService.STATUS_PENDING)));
+
+        assertThatThrownBy(() -> settlementService.getOrCreatePendingSettlement(
+                "M1", PERIOD_TO.plusDays(7).toLocalDate().atStartOfDay(), PERIOD_TO.plusDays(8)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(REFERENCE);
+        assertThatThrownBy(() -> settlementService.getOrCreatePendingSettlement(
+                "M1", PERIOD_FROM.plusHours(1), PERIOD_TO))
+                .isInstanceOf(IllegalStateException.class);
+        verify(railTransferRepository, never()).findUnsettled(anyString(), anyString(), any(), any(), any());
+    }
+
+    private static MerchantSettlement settlement(String status) {
+        return MerchantSettlement.builder()
+                .id(1L)
+                .merchantId("M1")
+                .settlementReference(REFERENCE)
+                .totalAmount(new BigDecimal("10.30"))
+                .commissionAmount(new BigDecimal("0.30"))
+                .netAmount(new BigDecimal("10.00"))
+                .transactionCount(2)
+                .periodFrom(PERIOD_FROM)
+                .periodTo(PERIOD_TO)
+                .status(status)
+                .settledAt(SettlementService.STATUS_SETTLED.equals(status) ? LocalDateTime.now() : null)
+                .build();
+    }
+
+    private static MerchantAccount merchant() {
+        return MerchantAccount.builder().merchantId("M1").build();
+    }
+
+    private static SettlementMarkRequest request(double fees) {
+        return SettlementMarkRequest.builder()
+                .settlementId(REFERENCE)
+                .transactionRefs(List.of("REF-1", "REF-2"))
+                .totalAmount(10.3)
+                .totalNetAmount(10.0)
+                .totalFees(fees)
+                .build();
+    }
+}
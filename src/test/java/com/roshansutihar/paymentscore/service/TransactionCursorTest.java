@@ -0,0 +1,55 @@
+package com.roshansutihar.paymentscore.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    @Test
+    void roundTripsMicrosecondTimestamps() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 3, 1, 23, 59, 59, 999_999_000), 42L);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    // LocalDateTime.toString() drops zero seconds, which parse() must still accept
+    @Test
+    void roundTripsWholeMinuteTimestamps() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 3, 1, 0, 0), Long.MAX_VALUE);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        String token = new TransactionCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000), 7L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "2024-03-01T12:00|1"})
+    void rejectsMalformedTokens(String token) {
+        assertThatThrownBy(() -> TransactionCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-03-01T12:00", "2024-03-01T12:00|1|2", "yesterday|1", "2024-03-01T12:00|abc"})
+    void rejectsTokensWithBadContent(String content) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> TransactionCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
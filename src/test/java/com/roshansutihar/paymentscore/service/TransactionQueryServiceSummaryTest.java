@@ -0,0 +1,194 @@
+package com.roshansutihar.paymentscore.service;
+
+import com.roshansutihar.paymentscore.dtos.MerchantStatusTotalsDTO;
+import com.roshansutihar.paymentscore.repository.LedgerEntryRepository;
+import com.roshansutihar.paymentscore.repository.MerchantDailyRollupRepository;
+import com.roshansutihar.paymentscore.response.TransactionSummaryResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Summaries built from daily rollups plus partial edge days must match summaries aggregated from
+ * the ledger alone. Both repositories answer from the same in-memory credits, the rollups grouped
+ * by calendar day as the rollup maintenance does.
+ */
+class TransactionQueryServiceSummaryTest {
+
+    private static final String MERCHANT_ID = "m-1";
+    private static final String MERCHANT_ACCOUNT = "MERCHANT_" + MERCHANT_ID;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 3, 1);
+    private static final LocalTime LAST_MICROSECOND_OF_DAY = LocalTime.MAX.withNano(999_999_000);
+    private static final List<LocalTime> CREDIT_TIMES = List.of(
+            LocalTime.MIDNIGHT,
+            LocalTime.of(0, 0, 0, 1_000),
+            LocalTime.of(9, 30, 15, 500_000_000),
+            LocalTime.NOON,
+            LocalTime.of(23, 59, 59, 999_998_000),
+            LAST_MICROSECOND_OF_DAY);
+    private static final String[] STATUSES = {"COMPLETED", "PENDING", null};
+
+    private final List<Credit> credits = credits();
+    private final LedgerEntryRepository ledgerEntryRepository = mock(LedgerEntryRepository.class);
+    private final MerchantDailyRollupRepository merchantDailyRollupRepository = mock(MerchantDailyRollupRepository.class);
+    private final TransactionQueryService service =
+            new TransactionQueryService(ledgerEntryRepository, merchantDailyRollupRepository);
+
+    TransactionQueryServiceSummaryTest() {
+        when(ledgerEntryRepository.sumMerchantCreditsByStatusBefore(eq(MERCHANT_ACCOUNT), any(), any()))
+                .thenAnswer(invocation -> {
+                    LocalDateTime from = invocation.getArgument(1);
+                    LocalDateTime to = invocation.getArgument(2);
+                    return ledgerTotals(credit -> !credit.createdAt().isBefore(from) && credit.createdAt().isBefore(to));
+                });
+        when(ledgerEntryRepository.sumMerchantCreditsByStatusThrough(eq(MERCHANT_ACCOUNT), any(), any()))
+                .thenAnswer(invocation -> {
+                    LocalDateTime from = invocation.getArgument(1);
+                    LocalDateTime to = invocation.getArgument(2);
+                    return ledgerTotals(credit -> !credit.createdAt().isBefore(from) && !credit.createdAt().isAfter(to));
+                });
+        when(merchantDailyRollupRepository.sumByStatus(eq(MERCHANT_ID), any(), any()))
+                .thenAnswer(invocation -> {
+                    LocalDate fromDate = invocation.getArgument(1);
+                    LocalDate toDate = invocation.getArgument(2);
+                    return rollupTotals(fromDate, toDate);
+                });
+    }
+
+    static Stream<Arguments> ranges() {
+        LocalDateTime day1 = FIRST_DAY.atStartOfDay();
+        return Stream.of(
+                Arguments.of("whole days", day1.plusDays(1), FIRST_DAY.plusDays(3).atTime(LAST_MICROSECOND_OF_DAY)),
+                Arguments.of("partial days at both ends", day1.plusHours(10).plusMinutes(30),
+                        day1.plusDays(3).plusHours(8).plusMinutes(15)),
+                Arguments.of("partial first day only", day1.plusHours(9),
+                        FIRST_DAY.plusDays(2).atTime(LAST_MICROSECOND_OF_DAY)),
+                Arguments.of("partial last day only", day1, day1.plusDays(2).plusHours(12)),
+                Arguments.of("end at midnight", day1.plusDays(1), day1.plusDays(3)),
+                Arguments.of("end one microsecond short of a whole day", day1,
+                        FIRST_DAY.plusDays(2).atTime(LocalTime.of(23, 59, 59, 999_998_000))),
+                Arguments.of("end at LocalTime.MAX", day1, FIRST_DAY.plusDays(2).atTime(LocalTime.MAX)),
+                Arguments.of("start at the last microsecond of a day", FIRST_DAY.atTime(LAST_MICROSECOND_OF_DAY),
+                        day1.plusDays(3).plusHours(12)),
+                Arguments.of("within one day", day1.plusDays(1).plusHours(9), day1.plusDays(1).plusHours(17)),
+                Arguments.of("one whole day", day1.plusDays(1), FIRST_DAY.plusDays(1).atTime(LAST_MICROSECOND_OF_DAY)),
+                Arguments.of("partial days either side of midnight", day1.plusHours(12), day1.plusDays(1).plusHours(12)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("ranges")
+    void rollupSummaryMatchesLedgerSummary(String description, LocalDateTime startDate, LocalDateTime endDate) {
+        TransactionSummaryResponse rolledUp = summary(true, startDate, endDate);
+        TransactionSummaryResponse fromLedger = summary(false, startDate, endDate);
+
+        assertThat(rolledUp)
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(fromLedger);
+        long expected = credits.stream()
+                .filter(credit -> !credit.createdAt().isBefore(startDate) && !credit.createdAt().isAfter(endDate))
+                .count();
+        assertThat(rolledUp.getTotalTransactions()).isEqualTo((int) expected);
+    }
+
+    @Test
+    void wholeDaysComeFromRollups() {
+        LocalDateTime startDate = FIRST_DAY.atStartOfDay().plusHours(12);
+        LocalDateTime endDate = FIRST_DAY.plusDays(3).atStartOfDay().plusHours(12);
+
+        summary(true, startDate, endDate);
+
+        verify(merchantDailyRollupRepository).sumByStatus(MERCHANT_ID, FIRST_DAY.plusDays(1), FIRST_DAY.plusDays(2));
+        verify(ledgerEntryRepository).sumMerchantCreditsByStatusBefore(
+                MERCHANT_ACCOUNT, startDate, FIRST_DAY.plusDays(1).atStartOfDay());
+        verify(ledgerEntryRepository).sumMerchantCreditsByStatusThrough(
+                MERCHANT_ACCOUNT, FIRST_DAY.plusDays(3).atStartOfDay(), endDate);
+    }
+
+    @Test
+    void rangeWithinOneDayReadsOnlyTheLedger() {
+        LocalDateTime startDate = FIRST_DAY.atTime(9, 0);
+        LocalDateTime endDate = FIRST_DAY.atTime(17, 0);
+
+        summary(true, startDate, endDate);
+
+        verify(merchantDailyRollupRepository, never()).sumByStatus(anyString(), any(), any());
+        verify(ledgerEntryRepository).sumMerchantCreditsByStatusThrough(MERCHANT_ACCOUNT, startDate, endDate);
+    }
+
+    private TransactionSummaryResponse summary(boolean rollupsEnabled, LocalDateTime startDate, LocalDateTime endDate) {
+        ReflectionTestUtils.setField(service, "summaryRollupsEnabled", rollupsEnabled);
+        return service.getTransactionSummary(MERCHANT_ID, startDate, endDate);
+    }
+
+    // Ledger aggregation reports a missing rail transfer as a null status
+    private List<MerchantStatusTotalsDTO> ledgerTotals(Predicate<Credit> inRange) {
+        return group(credits.stream().filter(inRange).toList(), Credit::status);
+    }
+
+    // Rollups store a missing rail transfer as UNKNOWN
+    private List<MerchantStatusTotalsDTO> rollupTotals(LocalDate fromDate, LocalDate toDate) {
+        List<Credit> inRange = credits.stream()
+                .filter(credit -> !credit.createdAt().toLocalDate().isBefore(fromDate)
+                        && !credit.createdAt().toLocalDate().isAfter(toDate))
+                .toList();
+        return group(inRange, credit -> Objects.requireNonNullElse(credit.status(), "UNKNOWN"));
+    }
+
+    private static List<MerchantStatusTotalsDTO> group(List<Credit> credits,
+                                                       Function<Credit, String> status) {
+        Map<String, MerchantStatusTotalsDTO> totals = new LinkedHashMap<>();
+        for (Credit credit : credits) {
+            MerchantStatusTotalsDTO statusTotals = totals.computeIfAbsent(String.valueOf(status.apply(credit)),
+                    key -> new MerchantStatusTotalsDTO(status.apply(credit), 0L,
+                            BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+            statusTotals.setCount(statusTotals.getCount() + 1);
+            statusTotals.setGrossAmount(statusTotals.getGrossAmount().add(credit.gross()));
+            statusTotals.setCommissionAmount(statusTotals.getCommissionAmount().add(credit.commission()));
+            statusTotals.setNetAmount(statusTotals.getNetAmount().add(credit.gross().subtract(credit.commission())));
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    // Credits at and around every day boundary over five days
+    private static List<Credit> credits() {
+        List<Credit> credits = new ArrayList<>();
+        int sequence = 0;
+        for (int day = 0; day < 5; day++) {
+            for (LocalTime time : CREDIT_TIMES) {
+                sequence++;
+                BigDecimal gross = BigDecimal.valueOf(sequence * 125L, 2);
+                credits.add(new Credit(FIRST_DAY.plusDays(day).atTime(time), STATUSES[sequence % STATUSES.length],
+                        gross, BigDecimal.valueOf(sequence * 3L, 2)));
+            }
+        }
+        return credits;
+    }
+
+    private record Credit(LocalDateTime createdAt, String status, BigDecimal gross, BigDecimal commission) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.roshansutihar.paymentscore.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time-ordered generator with the original UUID-based one, single-threaded and
+ * under contention. Run with {@code mvn test-compile} and then the {@link #main} method from the
+ * IDE, or {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main SessionIdGeneratorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionIdGeneratorBenchmark {
+
+    private final SessionIdGenerator timeOrdered = new TimeOrderedSessionIdGenerator(1);
+    private final SessionIdGenerator random = new RandomSessionIdGenerator();
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrdered.nextSessionId();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return random.nextSessionId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String timeOrderedContended() {
+        return timeOrdered.nextSessionId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String randomUuidContended() {
+        return random.nextSessionId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessionIdGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
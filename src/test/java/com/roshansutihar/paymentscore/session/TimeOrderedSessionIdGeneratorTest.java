@@ -0,0 +1,90 @@
+package com.roshansutihar.paymentscore.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedSessionIdGeneratorTest {
+
+    private final TimeOrderedSessionIdGenerator generator = new TimeOrderedSessionIdGenerator(7);
+
+    @Test
+    void idsArePrefixedCrockfordOfFixedLength() {
+        String id = generator.nextSessionId();
+
+        assertThat(id).startsWith(SessionIdGenerator.PREFIX);
+        assertThat(id).hasSize(SessionIdGenerator.PREFIX.length() + 26);
+        assertThat(id.substring(SessionIdGenerator.PREFIX.length())).matches("[0-9A-HJKMNP-TV-Z]{26}");
+    }
+
+    @Test
+    void idsFromLaterMillisecondsSortAfterEarlierOnes() throws InterruptedException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(generator.nextSessionId());
+            Thread.sleep(2);
+        }
+
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    void timePrefixNeverGoesBackwards() {
+        // The first 10 characters carry the 48-bit timestamp, so they are monotonic even within a millisecond
+        String previous = "";
+        for (int i = 0; i < 10_000; i++) {
+            String prefix = generator.nextSessionId().substring(SessionIdGenerator.PREFIX.length(), SessionIdGenerator.PREFIX.length() + 10);
+            assertThat(prefix).isGreaterThanOrEqualTo(previous);
+            previous = prefix;
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        seen.add(generator.nextSessionId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(seen).hasSize(80_000);
+    }
+
+    @Test
+    void nodeIdIsEncodedInTheId() {
+        TimeOrderedSessionIdGenerator other = new TimeOrderedSessionIdGenerator(1030);
+
+        assertThat(nodeBits(generator.nextSessionId())).isEqualTo(7L);
+        assertThat(nodeBits(other.nextSessionId())).isEqualTo(1030L & 0x3FF);
+    }
+
+    private static long nodeBits(String id) {
+        String encoded = id.substring(SessionIdGenerator.PREFIX.length());
+        // The first 13 characters are the high 64 bits shifted right by one
+        long value = 0;
+        for (int i = 0; i < 13; i++) {
+            value = (value << 5) | "0123456789ABCDEFGHJKMNPQRSTVWXYZ".indexOf(encoded.charAt(i));
+        }
+        return (value >>> 5) & 0x3FF;
+    }
+}